@@ -0,0 +1,37 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Alignment table that the edits are read back from. The back trace starts at the last cell and only ever moves to the
+ * cell above, to the left or diagonally up and to the left, until it reaches a cell without a back trace.
+ */
+public abstract class BackTraceTable {
+
+	static final byte BACK_TRACE_NONE = 0;
+	static final byte BACK_TRACE_FROM_SAME_SOURCE = 1;
+	static final byte BACK_TRACE_FROM_SAME_TARGET = 2;
+	static final byte BACK_TRACE_FROM_DIAGONAL = 3;
+
+	/**
+	 * Convert the source string to the target string and update the table
+	 */
+	public abstract void convertSourceToTarget();
+
+	/**
+	 * Get the alignment cost by column and row number
+	 *
+	 * @param column
+	 * @param row
+	 * @return the alignment cost
+	 */
+	abstract int getAlignmentCost(int column, int row);
+
+	/**
+	 * Get the direction of the back trace element by column and row number
+	 *
+	 * @param column
+	 * @param row
+	 * @return one of the back trace direction codes
+	 */
+	abstract byte getBackTraceDirection(int column, int row);
+
+}
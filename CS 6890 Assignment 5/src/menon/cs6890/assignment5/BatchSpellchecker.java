@@ -0,0 +1,82 @@
+package menon.cs6890.assignment5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Corrects a batch of words by spreading them over a pool of threads. The words are split into consecutive chunks
+ * and each correction is stored at the position of its word, so the corrections come back in the same order as the
+ * words no matter which thread finishes first.
+ */
+public class BatchSpellchecker {
+	
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/**
+	 * @param words to be spell checked
+	 * @param wordSpellchecker
+	 * @param threadCount the number of threads to use, where 1 corrects the words on the calling thread
+	 * @return the corrections in the same order as the words
+	 */
+	public static List<String> spellcheckWords(final List<String> words, final WordSpellchecker wordSpellchecker, int threadCount) {
+		
+		if (words == null || wordSpellchecker == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		
+		final String[] correctedWords = new String[words.size()];
+		
+		//Nothing to gain from a thread pool for a single thread
+		if (threadCount == 1 || words.size() < 2) {
+			for (int wordIndex = 0; wordIndex < correctedWords.length; ++wordIndex) {
+				correctedWords[wordIndex] = wordSpellchecker.spellcheckWord(words.get(wordIndex));
+			}
+			return Arrays.asList(correctedWords);
+		}
+		
+		//Several chunks per thread even out the load when some words take longer than others
+		int chunkSize = Math.max(1, (words.size() + threadCount * CHUNKS_PER_THREAD - 1) / (threadCount * CHUNKS_PER_THREAD));
+		List<Callable<Void>> chunks = new ArrayList<Callable<Void>>();
+		for (int chunkStart = 0; chunkStart < words.size(); chunkStart += chunkSize) {
+			
+			final int firstWordIndex = chunkStart, lastWordIndex = Math.min(words.size(), chunkStart + chunkSize);
+			
+			chunks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int wordIndex = firstWordIndex; wordIndex < lastWordIndex; ++wordIndex) {
+						correctedWords[wordIndex] = wordSpellchecker.spellcheckWord(words.get(wordIndex));
+					}
+					return null;
+				}
+			});
+		}
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threadCount, chunks.size()));
+		try {
+			for (Future<Void> chunk : executorService.invokeAll(chunks)) {
+				chunk.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while spell checking words.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Exception thrown while spell checking words.", e.getCause());
+		} finally {
+			executorService.shutdownNow();
+		}
+		
+		return Arrays.asList(correctedWords);
+	}
+
+}
@@ -0,0 +1,134 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Keeps only the best matching nutrition term seen so far while a dictionary is being scanned, so that the
+ * alignment of each nutrition term can be discarded as soon as it has been scored. Of two equally good candidates the
+ * one offered first is kept, unless the candidates come with their scan index, in which case the one that comes first
+ * in scan order is kept. Structures that offer terms out of scan order pick the same match as a scan that way.
+ */
+public class BestMatchSelector {
+
+	private boolean tiesBrokenOnStringLengthDifference;
+	private int lowestMatchingCost;
+	private int lowestStringLengthDifference;
+	private int bestScanIndex;
+	private String bestMatch;
+	private boolean matchFound;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tiesBrokenOnStringLengthDifference if true, a candidate with the same cost as the best match replaces
+	 *        it when the difference between the lengths of the two strings is lower
+	 */
+	public BestMatchSelector(boolean tiesBrokenOnStringLengthDifference) {
+
+		this.tiesBrokenOnStringLengthDifference = tiesBrokenOnStringLengthDifference;
+		this.lowestMatchingCost = Integer.MAX_VALUE;
+		this.lowestStringLengthDifference = Integer.MAX_VALUE;
+		this.bestScanIndex = Integer.MAX_VALUE;
+		this.bestMatch = null;
+		this.matchFound = false;
+	}
+
+	/**
+	 * Compare a scored candidate with the best match so far and keep the better of the two
+	 *
+	 * @param candidate
+	 * @param matchingCost
+	 * @param maximumAllowedCost the candidate is ignored unless its cost is below this value
+	 * @param stringLengthDifference
+	 * @return true if the candidate is now the best match
+	 */
+	public boolean offer(String candidate, int matchingCost, int maximumAllowedCost, int stringLengthDifference) {
+
+		return offer(candidate, matchingCost, maximumAllowedCost, stringLengthDifference, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Compare a scored candidate with the best match so far and keep the better of the two. A candidate that is as
+	 * good as the best match replaces it if it comes earlier in scan order.
+	 *
+	 * @param candidate
+	 * @param matchingCost
+	 * @param maximumAllowedCost the candidate is ignored unless its cost is below this value
+	 * @param stringLengthDifference
+	 * @param scanIndex position of the candidate in the order the dictionary is scanned
+	 * @return true if the candidate is now the best match
+	 */
+	public boolean offer(String candidate, int matchingCost, int maximumAllowedCost, int stringLengthDifference, int scanIndex) {
+
+		if (matchingCost >= maximumAllowedCost) {
+			return false;
+		}
+
+		if (matchingCost < this.lowestMatchingCost ||
+		    (this.tiesBrokenOnStringLengthDifference && matchingCost == this.lowestMatchingCost && stringLengthDifference < this.lowestStringLengthDifference) ||
+		    (matchingCost == this.lowestMatchingCost && (!this.tiesBrokenOnStringLengthDifference || stringLengthDifference == this.lowestStringLengthDifference) && scanIndex < this.bestScanIndex)) {
+			this.lowestMatchingCost = matchingCost;
+			this.lowestStringLengthDifference = stringLengthDifference;
+			this.bestScanIndex = scanIndex;
+			this.bestMatch = candidate;
+			this.matchFound = true;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Offer the best match of another selector that was offered candidates coming after those offered to this one
+	 * 
+	 * @param bestMatchSelector
+	 * @return true if the other best match is now the best match
+	 */
+	public boolean merge(BestMatchSelector bestMatchSelector) {
+		
+		if (bestMatchSelector == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (!bestMatchSelector.isMatchFound()) {
+			return false;
+		}
+		
+		//The other best match was already checked against its maximum allowed cost
+		return offer(bestMatchSelector.getBestMatch(), bestMatchSelector.getLowestMatchingCost(), Integer.MAX_VALUE, bestMatchSelector.getLowestStringLengthDifference(), bestMatchSelector.getBestScanIndex());
+	}
+	
+	/**
+	 * @return true if at least one candidate was below its maximum allowed cost
+	 */
+	public boolean isMatchFound() {
+		return this.matchFound;
+	}
+
+	/**
+	 * @return the best match or null if no match was found
+	 */
+	public String getBestMatch() {
+		return this.bestMatch;
+	}
+
+	/**
+	 * @return the cost of the best match or Integer.MAX_VALUE if no match was found
+	 */
+	public int getLowestMatchingCost() {
+		return this.lowestMatchingCost;
+	}
+
+	/**
+	 * @return the scan index of the best match, or Integer.MAX_VALUE if no match was found or it was offered without one
+	 */
+	public int getBestScanIndex() {
+		return this.bestScanIndex;
+	}
+
+	/**
+	 * @return the string length difference of the best match or Integer.MAX_VALUE if no match was found
+	 */
+	public int getLowestStringLengthDifference() {
+		return this.lowestStringLengthDifference;
+	}
+
+}
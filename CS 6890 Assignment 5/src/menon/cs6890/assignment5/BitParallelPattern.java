@@ -0,0 +1,82 @@
+package menon.cs6890.assignment5;
+
+import java.util.Arrays;
+
+/**
+ * Stores the pattern match bit masks of a string for the bit parallel edit distance algorithm. For every distinct
+ * character of the pattern there is one bit mask per 64 characters of pattern, with a bit set at each position 
+ * where the character occurs.
+ */
+public class BitParallelPattern {
+	
+	public static final int BLOCK_SIZE = Long.SIZE;
+	
+	private String pattern;
+	private int blockCount;
+	private char[] characters;
+	private long[] matchMasks;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pattern
+	 */
+	public BitParallelPattern(String pattern) {
+		
+		if (pattern == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		this.pattern = pattern;
+		this.blockCount = (pattern.length() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		
+		//Find the distinct characters in the pattern in sorted order so that they can be binary searched
+		char[] sortedCharacters = pattern.toCharArray();
+		Arrays.sort(sortedCharacters);
+		int distinctCharacterCount = 0;
+		for (int characterIndex = 0; characterIndex < sortedCharacters.length; ++characterIndex) {
+			if (distinctCharacterCount == 0 || sortedCharacters[characterIndex] != sortedCharacters[distinctCharacterCount - 1]) {
+				sortedCharacters[distinctCharacterCount++] = sortedCharacters[characterIndex];
+			}
+		}
+		this.characters = Arrays.copyOf(sortedCharacters, distinctCharacterCount);
+		
+		//Set a bit for each position of each character
+		this.matchMasks = new long[distinctCharacterCount * this.blockCount];
+		int characterOffset = 0;
+		for (int patternIndex = 0; patternIndex < pattern.length(); ++patternIndex) {
+			characterOffset = Arrays.binarySearch(this.characters, pattern.charAt(patternIndex));
+			this.matchMasks[characterOffset * this.blockCount + patternIndex / BLOCK_SIZE] |= 1L << (patternIndex % BLOCK_SIZE);
+		}
+	}
+	
+	/**
+	 * @param character
+	 * @param block
+	 * @return the bit mask of the positions in the block where the character occurs
+	 */
+	long getMatchMask(char character, int block) {
+		
+		int characterOffset = Arrays.binarySearch(this.characters, character);
+		if (characterOffset < 0) {
+			return 0L;
+		}
+		
+		return this.matchMasks[characterOffset * this.blockCount + block];
+	}
+	
+	/**
+	 * @return the pattern string
+	 */
+	public String getPattern() {
+		return this.pattern;
+	}
+	
+	/**
+	 * @return the number of 64 bit blocks needed to hold the pattern
+	 */
+	public int getBlockCount() {
+		return this.blockCount;
+	}
+
+}
@@ -0,0 +1,259 @@
+package menon.cs6890.assignment5;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Burkhard-Keller tree (BK-tree) over dictionary terms. Each child is stored under its edit distance from the
+ * parent, so when the distance function is a metric, the triangle inequality rules out whole subtrees whose
+ * distance from the parent is too different from the distance between the word and the parent.
+ * 
+ * The nodes are held in flat arrays. Each node has the index of its term, of its first child and of its next 
+ * sibling, and the edit distance from its parent. Each node also has the position of its term in the order the terms
+ * were given, which is the order the dictionary is scanned, and the lowest such position in its subtree. Equally good
+ * terms are then told apart the same way as in a scan, and a subtree is only searched for an equally good term if it
+ * holds a term that comes earlier than the best match so far.
+ */
+public class BurkhardKellerTree {
+	
+	private static final int NO_NODE = -1;
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private String[] terms;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private int[] distancesFromParent;
+	private int[] scanIndexes;
+	private int[] firstScanIndexes;
+	private int nodeCount;
+	
+	/**
+	 * Constructor builds the tree by inserting the terms one at a time
+	 * 
+	 * @param terms in the order the dictionary is scanned
+	 * @param levenshteinEditDistanceScorer the metric used to place the terms
+	 */
+	public BurkhardKellerTree(Collection<String> terms, LevenshteinEditDistanceScorer levenshteinEditDistanceScorer) {
+		
+		if (terms == null || levenshteinEditDistanceScorer == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		int capacity = Math.max(INITIAL_CAPACITY, terms.size());
+		this.terms = new String[capacity];
+		this.firstChildren = new int[capacity];
+		this.nextSiblings = new int[capacity];
+		this.distancesFromParent = new int[capacity];
+		this.scanIndexes = new int[capacity];
+		this.nodeCount = 0;
+		
+		int scanIndex = 0;
+		for (String term : terms) {
+			insert(term, scanIndex++, levenshteinEditDistanceScorer);
+		}
+		
+		computeFirstScanIndexes();
+	}
+	
+	/**
+	 * Constructor that takes the node arrays of a tree built earlier, such as one read from a dictionary snapshot
+	 * 
+	 * @param terms
+	 * @param firstChildren
+	 * @param nextSiblings
+	 * @param distancesFromParent
+	 * @param scanIndexes
+	 * @param nodeCount
+	 */
+	BurkhardKellerTree(String[] terms, int[] firstChildren, int[] nextSiblings, int[] distancesFromParent, int[] scanIndexes, int nodeCount) {
+		
+		if (terms == null || firstChildren == null || nextSiblings == null || distancesFromParent == null || scanIndexes == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (nodeCount < 0 || terms.length < nodeCount || firstChildren.length < nodeCount || nextSiblings.length < nodeCount || distancesFromParent.length < nodeCount || scanIndexes.length < nodeCount) {
+			throw new IllegalArgumentException("Node arrays are shorter than the node count.");
+		}
+		
+		this.terms = terms;
+		this.firstChildren = firstChildren;
+		this.nextSiblings = nextSiblings;
+		this.distancesFromParent = distancesFromParent;
+		this.scanIndexes = scanIndexes;
+		this.nodeCount = nodeCount;
+		
+		computeFirstScanIndexes();
+	}
+	
+	/**
+	 * Add a term below the child at the same distance from each node on the way down, until a node without such
+	 * a child is reached
+	 * 
+	 * @param term
+	 * @param scanIndex
+	 * @param levenshteinEditDistanceScorer
+	 */
+	private void insert(String term, int scanIndex, LevenshteinEditDistanceScorer levenshteinEditDistanceScorer) {
+		
+		if (this.nodeCount == 0) {
+			addNode(term, scanIndex, 0);
+			return;
+		}
+		
+		int currentNode = 0, child = NO_NODE, distance = 0;
+		
+		while (true) {
+			
+			distance = levenshteinEditDistanceScorer.getEditDistance(this.terms[currentNode], term);
+			
+			//A term that is already in the tree is not added again, so it keeps its first scan index
+			if (distance == 0 && this.terms[currentNode].equals(term)) {
+				return;
+			}
+			
+			//Look for the child at the same distance
+			child = this.firstChildren[currentNode];
+			while (child != NO_NODE && this.distancesFromParent[child] != distance) {
+				child = this.nextSiblings[child];
+			}
+			
+			if (child == NO_NODE) {
+				child = addNode(term, scanIndex, distance);
+				this.nextSiblings[child] = this.firstChildren[currentNode];
+				this.firstChildren[currentNode] = child;
+				return;
+			}
+			
+			currentNode = child;
+		}
+	}
+	
+	/**
+	 * @param term
+	 * @param scanIndex
+	 * @param distanceFromParent
+	 * @return the index of the new node
+	 */
+	private int addNode(String term, int scanIndex, int distanceFromParent) {
+		
+		if (this.nodeCount == this.terms.length) {
+			int capacity = this.terms.length * 2;
+			this.terms = Arrays.copyOf(this.terms, capacity);
+			this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+			this.nextSiblings = Arrays.copyOf(this.nextSiblings, capacity);
+			this.distancesFromParent = Arrays.copyOf(this.distancesFromParent, capacity);
+			this.scanIndexes = Arrays.copyOf(this.scanIndexes, capacity);
+		}
+		
+		int node = this.nodeCount++;
+		this.terms[node] = term;
+		this.firstChildren[node] = NO_NODE;
+		this.nextSiblings[node] = NO_NODE;
+		this.distancesFromParent[node] = distanceFromParent;
+		this.scanIndexes[node] = scanIndex;
+		
+		return node;
+	}
+	
+	/**
+	 * Work out the lowest scan index in the subtree of each node. A child is always added after its parent, so going
+	 * through the nodes backwards reaches every child before its parent.
+	 */
+	private void computeFirstScanIndexes() {
+		
+		this.firstScanIndexes = new int[this.nodeCount];
+		
+		for (int node = this.nodeCount - 1; node >= 0; --node) {
+			int firstScanIndex = this.scanIndexes[node];
+			for (int child = this.firstChildren[node]; child != NO_NODE; child = this.nextSiblings[child]) {
+				firstScanIndex = Math.min(firstScanIndex, this.firstScanIndexes[child]);
+			}
+			this.firstScanIndexes[node] = firstScanIndex;
+		}
+	}
+	
+	/**
+	 * Offer every term that could be closer to the word than both the search radius and the best match so far to the 
+	 * best match selector. The radius shrinks as better matches are found. Terms as close as the best match so far are
+	 * only looked for in subtrees that hold a term earlier in scan order.
+	 * 
+	 * @param word
+	 * @param searchRadius the highest edit distance of interest
+	 * @param levenshteinEditDistanceScorer the same metric the tree was built with
+	 * @param bestMatchSelector
+	 */
+	public void findClosestTerms(String word, int searchRadius, LevenshteinEditDistanceScorer levenshteinEditDistanceScorer, BestMatchSelector bestMatchSelector) {
+		
+		if (word == null || levenshteinEditDistanceScorer == null || bestMatchSelector == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (this.nodeCount == 0) {
+			return;
+		}
+		
+		int[] pendingNodes = new int[INITIAL_CAPACITY];
+		int pendingNodeCount = 0, currentNode = 0, distance = 0, radius = 0, tieRadius = 0, child = NO_NODE;
+		String term = null;
+		
+		pendingNodes[pendingNodeCount++] = 0;
+		
+		while (pendingNodeCount > 0) {
+			
+			currentNode = pendingNodes[--pendingNodeCount];
+			term = this.terms[currentNode];
+			distance = levenshteinEditDistanceScorer.getEditDistance(term, word);
+			
+			//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+			if (distance <= searchRadius) {
+				bestMatchSelector.offer(term, distance, word.length() + term.length(), Math.abs(word.length() - term.length()), this.scanIndexes[currentNode]);
+			}
+			
+			//Only a term that costs less than the best match so far, or as much but earlier in scan order, is of interest
+			radius = searchRadius;
+			tieRadius = searchRadius;
+			if (bestMatchSelector.isMatchFound()) {
+				radius = Math.min(radius, bestMatchSelector.getLowestMatchingCost() - 1);
+				tieRadius = Math.min(tieRadius, bestMatchSelector.getLowestMatchingCost());
+			}
+			
+			//By the triangle inequality, a child can only be within the radius if its distance from the parent is within the radius of the distance from the word
+			for (child = this.firstChildren[currentNode]; child != NO_NODE; child = this.nextSiblings[child]) {
+				if (Math.abs(this.distancesFromParent[child] - distance) <= (this.firstScanIndexes[child] < bestMatchSelector.getBestScanIndex() ? tieRadius : radius)) {
+					if (pendingNodeCount == pendingNodes.length) {
+						pendingNodes = Arrays.copyOf(pendingNodes, pendingNodeCount * 2);
+					}
+					pendingNodes[pendingNodeCount++] = child;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of terms in the tree
+	 */
+	public int size() {
+		return this.nodeCount;
+	}
+	
+	String[] getTerms() {
+		return this.terms;
+	}
+	
+	int[] getFirstChildren() {
+		return this.firstChildren;
+	}
+	
+	int[] getNextSiblings() {
+		return this.nextSiblings;
+	}
+	
+	int[] getDistancesFromParent() {
+		return this.distancesFromParent;
+	}
+	
+	int[] getScanIndexes() {
+		return this.scanIndexes;
+	}
+
+}
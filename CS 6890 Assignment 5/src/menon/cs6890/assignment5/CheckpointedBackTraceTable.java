@@ -0,0 +1,159 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Alignment table for strings too long to keep every cell. Converting the source keeps only every k-th row, where k is
+ * about the square root of the number of rows. As the back trace never moves down, the rows between two kept rows are
+ * worked out again from the upper one when the back trace first reaches them, and the block below is dropped. This
+ * costs one more pass over the table, but holds about two square roots of the rows instead of all of them.
+ * <p>
+ * The back trace direction of a cell is worked out from the costs of its neighbors with the same rule as the full
+ * tables, so the back trace ends up on exactly the same path.
+ */
+public abstract class CheckpointedBackTraceTable extends BackTraceTable {
+
+	private int rowCount;
+	private int columnCount;
+	private int rowsPerBlock;
+	private int[] checkpointRows;
+	private int[] blockRows;
+	private int firstRowInBlock;
+
+	/**
+	 * Constructor
+	 *
+	 * @param rowCount the number of rows in the table
+	 * @param columnCount the number of columns in the table
+	 */
+	protected CheckpointedBackTraceTable(int rowCount, int columnCount) {
+
+		if (rowCount < 1 || columnCount < 1) {
+			throw new IllegalArgumentException("A table needs at least one row and one column.");
+		}
+
+		this.rowCount = rowCount;
+		this.columnCount = columnCount;
+		this.rowsPerBlock = Math.max(1, (int) Math.ceil(Math.sqrt(rowCount)));
+		this.checkpointRows = new int[((rowCount - 1) / this.rowsPerBlock + 1) * columnCount];
+		this.blockRows = new int[(this.rowsPerBlock + 1) * columnCount];
+		this.firstRowInBlock = -1;
+	}
+
+	/**
+	 * Convert the source string to the target string, keeping the first row of each block
+	 */
+	@Override
+	public void convertSourceToTarget() {
+
+		int[] blockRows = this.blockRows;
+		int columnCount = this.columnCount;
+
+		//Only two rows of the block are used here, swapping between them
+		computeFirstRow(blockRows, 0);
+		System.arraycopy(blockRows, 0, this.checkpointRows, 0, columnCount);
+
+		int previousOffset = 0, offset = columnCount;
+		for (int row = 1; row < this.rowCount; ++row) {
+			computeNextRow(row, blockRows, previousOffset, offset);
+			if (row % this.rowsPerBlock == 0) {
+				System.arraycopy(blockRows, offset, this.checkpointRows, (row / this.rowsPerBlock) * columnCount, columnCount);
+			}
+			previousOffset = offset;
+			offset = columnCount - offset;
+		}
+
+		//The block rows now hold a mix of rows, so the first access works its block out again
+		this.firstRowInBlock = -1;
+	}
+
+	/**
+	 * Get the alignment cost by column and row number
+	 *
+	 * @param column
+	 * @param row
+	 * @return the alignment cost
+	 */
+	@Override
+	int getAlignmentCost(int column, int row) {
+
+		//Check if valid values have been passed in
+		if (column < 0 || row < 0 || column >= this.columnCount || row >= this.rowCount) {
+			throw new IllegalArgumentException("Invalid table coordinates.");
+		}
+
+		//Rows above the block being read are only asked for by the back trace of the first row of the block
+		if (this.firstRowInBlock < 0 || row < this.firstRowInBlock || row > this.firstRowInBlock + this.rowsPerBlock) {
+			loadBlock(row == 0 ? 0 : (row - 1) / this.rowsPerBlock);
+		}
+
+		return this.blockRows[(row - this.firstRowInBlock) * this.columnCount + column];
+	}
+
+	/**
+	 * Get the direction of the back trace element by column and row number
+	 *
+	 * @param column
+	 * @param row
+	 * @return one of the back trace direction codes
+	 */
+	@Override
+	byte getBackTraceDirection(int column, int row) {
+
+		if (row == 0) {
+			return column == 0 ? BACK_TRACE_NONE : BACK_TRACE_FROM_SAME_TARGET;
+		} else if (column == 0) {
+			return BACK_TRACE_FROM_SAME_SOURCE;
+		}
+
+		//The back trace is the neighbor with the least cost, preferring the same source, then the same target and then the diagonal
+		byte backTraceDirection = BACK_TRACE_FROM_SAME_SOURCE;
+		int backTraceCost = getAlignmentCost(column, row - 1);
+		if (getAlignmentCost(column - 1, row) < backTraceCost) {
+			backTraceDirection = BACK_TRACE_FROM_SAME_TARGET;
+			backTraceCost = getAlignmentCost(column - 1, row);
+		}
+		if (getAlignmentCost(column - 1, row - 1) < backTraceCost) {
+			backTraceDirection = BACK_TRACE_FROM_DIAGONAL;
+		}
+
+		return backTraceDirection;
+	}
+
+	/**
+	 * Work out every row of a block again from the kept first row. A block also holds the first row of the next block,
+	 * so that a cell and the cells above it are always in the same block.
+	 *
+	 * @param block
+	 */
+	private void loadBlock(int block) {
+
+		int columnCount = this.columnCount;
+		int firstRowInBlock = block * this.rowsPerBlock;
+		int lastRowInBlock = Math.min(firstRowInBlock + this.rowsPerBlock, this.rowCount - 1);
+
+		System.arraycopy(this.checkpointRows, block * columnCount, this.blockRows, 0, columnCount);
+		for (int row = firstRowInBlock + 1, offset = columnCount; row <= lastRowInBlock; ++row, offset += columnCount) {
+			computeNextRow(row, this.blockRows, offset - columnCount, offset);
+		}
+
+		this.firstRowInBlock = firstRowInBlock;
+	}
+
+	/**
+	 * Fill in the first row of the table
+	 *
+	 * @param costs
+	 * @param offset where the row starts in the costs
+	 */
+	protected abstract void computeFirstRow(int[] costs, int offset);
+
+	/**
+	 * Fill in a row of the table from the row above it
+	 *
+	 * @param row the number of the row being filled in
+	 * @param costs
+	 * @param previousOffset where the row above starts in the costs
+	 * @param offset where the row starts in the costs
+	 */
+	protected abstract void computeNextRow(int row, int[] costs, int previousOffset, int offset);
+
+}
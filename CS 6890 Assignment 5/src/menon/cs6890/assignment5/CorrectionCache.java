@@ -0,0 +1,179 @@
+package menon.cs6890.assignment5;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the corrections of recently spell checked words, so that a misspelling that recurs in the input is only
+ * scored against the dictionary once. Each correction is stored under the configuration key of the spellchecker that
+ * made it, which identifies its dictionary as well as its algorithm and costs, so one cache can be shared by
+ * spellcheckers over different dictionaries or with different settings. When the cache is full the least recently used
+ * correction is evicted. All methods are synchronized, so the cache can be used by several threads.
+ */
+public class CorrectionCache {
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private int capacity;
+	private Map<CacheKey, String> corrections;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * A word together with the configuration of the spellchecker that corrected it
+	 */
+	private static final class CacheKey {
+
+		private String configurationKey;
+		private String word;
+		private int hashCode;
+
+		CacheKey(String configurationKey, String word) {
+			this.configurationKey = configurationKey;
+			this.word = word;
+			this.hashCode = 31 * configurationKey.hashCode() + word.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+
+			if (this == other) {
+				return true;
+			}
+
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+
+			CacheKey otherKey = (CacheKey) other;
+			return this.hashCode == otherKey.hashCode && this.word.equals(otherKey.word) && this.configurationKey.equals(otherKey.configurationKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * Constructor
+	 */
+	public CorrectionCache() {
+
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity the most corrections kept
+	 */
+	public CorrectionCache(int capacity) {
+
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The cache must be able to hold at least one correction.");
+		}
+
+		this.capacity = capacity;
+		this.hitCount = 0;
+		this.missCount = 0;
+		this.evictionCount = 0;
+
+		//Iterating in access order puts the least recently used correction first
+		this.corrections = new LinkedHashMap<CacheKey, String>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+
+				if (size() > CorrectionCache.this.capacity) {
+					++CorrectionCache.this.evictionCount;
+					return true;
+				}
+
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @param configurationKey identifies the dictionary, algorithm and settings of the spellchecker
+	 * @param word
+	 * @return the cached correction or null if the word has not been corrected with this configuration
+	 */
+	public synchronized String get(String configurationKey, String word) {
+
+		if (configurationKey == null || word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		String correction = this.corrections.get(new CacheKey(configurationKey, word));
+
+		if (correction == null) {
+			++this.missCount;
+		} else {
+			++this.hitCount;
+		}
+
+		return correction;
+	}
+
+	/**
+	 * @param configurationKey identifies the dictionary, algorithm and settings of the spellchecker
+	 * @param word
+	 * @param correction
+	 */
+	public synchronized void put(String configurationKey, String word, String correction) {
+
+		if (configurationKey == null || word == null || correction == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		this.corrections.put(new CacheKey(configurationKey, word), correction);
+	}
+
+	/**
+	 * Remove all corrections. The counters are not reset.
+	 */
+	public synchronized void clear() {
+		this.corrections.clear();
+	}
+
+	/**
+	 * @return the number of corrections in the cache
+	 */
+	public synchronized int size() {
+		return this.corrections.size();
+	}
+
+	/**
+	 * @return the most corrections kept
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return the number of lookups that found a correction
+	 */
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return the number of lookups that did not find a correction
+	 */
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * @return the number of corrections removed to make room for newer ones
+	 */
+	public synchronized long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+}
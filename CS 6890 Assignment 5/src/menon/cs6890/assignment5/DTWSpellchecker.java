@@ -1,49 +1,103 @@
 package menon.cs6890.assignment5;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Uses Dynamic Time Warping (DTW) to detect and correct OCR spellings
  */
 
-public class DTWSpellchecker {
+public class DTWSpellchecker implements WordSpellchecker {
 	
-	private Set<String> nutritionDictionary;
+	private Dictionary dictionary;
+	private int threadCount;
+	private boolean streaming;
+	private CorrectionCache correctionCache;
+	private PersistentCorrectionCache persistentCorrectionCache;
+	private String configurationKey;
+	private ForkJoinPool dictionaryScanPool;
+	private ThreadLocal<DynamicTimeWarpScorer> dynamicTimeWarpScorers;
+	private ThreadLocal<DynamicTimeWarpEditDistanceTable> dynamicTimeWarpEditDistanceTables;
+	private NGramIndex nGramIndex;
+	private int nGramCandidateCount;
+	private int nGramMaximumLengthDifference;
+	private DynamicTimeWarpWindow warpingWindow;
+	private int warpingWindowSize;
+	private long checkpointedEditsCellCount;
 	
 	
 
+	public static final int DEFAULT_N_GRAM_MAXIMUM_LENGTH_DIFFERENCE = 3;
+	public static final long DEFAULT_CHECKPOINTED_EDITS_CELL_COUNT = 1L << 22;
 	private static final String NUTRITION_DICTIONARY_FILE_NAME = "NutritionDictionary.txt";
 	private static final String NO_MATCH_FOUND = "NULL";
-	private static final String SINGLE_QUOTE = "\'";
-	private static final String COMMA_SEPARATOR = ", ";
-	private static final String ACTION_CODE_WARP = "wrp";
-	private static final String ACTION_CODE_MATCH = "mat";
 	
 	/**
 	 * Constructor
 	 */
 	public DTWSpellchecker() {
 		
-		this.nutritionDictionary = new HashSet<String>();
+		this(loadDictionary(null));
+	}
+	
+	/**
+	 * Constructor that loads the dictionary from a snapshot written by DictionarySnapshot
+	 * 
+	 * @param dictionarySnapshotFilePath the snapshot file, or null to read the dictionary text file
+	 */
+	public DTWSpellchecker(String dictionarySnapshotFilePath) {
+		
+		this(loadDictionary(dictionarySnapshotFilePath));
+	}
+	
+	/**
+	 * Constructor that shares a dictionary loaded earlier
+	 * 
+	 * @param dictionary
+	 */
+	public DTWSpellchecker(Dictionary dictionary) {
 		
-		if (!ableToLoadDictionaryFromFileInputFile()) {
-			System.exit(0);
+		if (dictionary == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
 		}
+		
+		this.dictionary = dictionary;
+		this.threadCount = 1;
+		this.streaming = false;
+		this.correctionCache = new CorrectionCache();
+		this.persistentCorrectionCache = null;
+		this.dictionaryScanPool = null;
+		
+		//The scorers and tables reuse their arrays, so each thread gets its own
+		this.dynamicTimeWarpScorers = new ThreadLocal<DynamicTimeWarpScorer>() {
+			@Override
+			protected DynamicTimeWarpScorer initialValue() {
+				return new DynamicTimeWarpScorer();
+			}
+		};
+		this.dynamicTimeWarpEditDistanceTables = new ThreadLocal<DynamicTimeWarpEditDistanceTable>() {
+			@Override
+			protected DynamicTimeWarpEditDistanceTable initialValue() {
+				return new DynamicTimeWarpEditDistanceTable("", "");
+			}
+		};
+		
+		this.nGramIndex = null;
+		this.nGramCandidateCount = 0;
+		this.nGramMaximumLengthDifference = DEFAULT_N_GRAM_MAXIMUM_LENGTH_DIFFERENCE;
+		this.warpingWindow = DynamicTimeWarpWindow.NONE;
+		this.warpingWindowSize = 0;
+		this.checkpointedEditsCellCount = DEFAULT_CHECKPOINTED_EDITS_CELL_COUNT;
+		updateConfigurationKey();
 	}
 		
 	/**
@@ -53,229 +107,536 @@ public class DTWSpellchecker {
 	 * 
 	 * @param input_file_path
 	 * @param output_file_path
+	 * @throws IllegalStateException if the file cannot be spell checked in streaming mode
 	 */
 	
 	public void spellcheckFile(String input_file_path, String output_file_path) {
+		
+		Calendar start = null, end = null;
+		
+		if (this.streaming) {
+			
+			start = Calendar.getInstance();
+			
+			//Read, correct and write the words a few at a time, the pipeline has already logged why it failed
+			if (!new StreamingSpellcheckPipeline(this, this.threadCount, StreamingSpellcheckPipeline.DEFAULT_QUEUE_CAPACITY).spellcheckFile(input_file_path, output_file_path)) {
+				throw new IllegalStateException("Unable to spell check file " + input_file_path + " into " + output_file_path + ".");
+			}
+			
+			end = Calendar.getInstance();
+			System.out.println("DTW Spellcheck took " + (end.getTimeInMillis() - start.getTimeInMillis()) + " milliseconds to complete.");
+			return;
+		}
 			
 		List<String> wordsToSpellcheck = getWordsFromTextFile(input_file_path);
-		List<String> correctedWords = new ArrayList<String>();
+		List<String> correctedWords = null;
 		
-		Calendar start = Calendar.getInstance();
-
-		//Loop through all the words to be spell checked
-		for (String word : wordsToSpellcheck) {
-			correctedWords.add(spellcheckWord(word));
-		}
+		start = Calendar.getInstance();
+		
+		//Spread the words to be spell checked over the threads
+		correctedWords = BatchSpellchecker.spellcheckWords(wordsToSpellcheck, this, this.threadCount);
 		
-		Calendar end = Calendar.getInstance();		
+		end = Calendar.getInstance();		
 		System.out.println("DTW Spellcheck took " + (end.getTimeInMillis() - start.getTimeInMillis()) + " milliseconds to complete.");
 		
 		//Write the corrected words to the output file
 		insertWordsIntoTextFile(correctedWords, output_file_path);
 	}
 	
+	/**
+	 * @return the dictionary of nutrition terms
+	 */
+	public Dictionary getDictionary() {
+		return this.dictionary;
+	}
+	
+	/**
+	 * @return true if spellcheckFile reads, corrects and writes the words a few at a time
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+	
+	/**
+	 * In streaming mode the memory used by spellcheckFile does not grow with the size of the input file, and the 
+	 * first corrections are written while the rest of the file is still being read
+	 * 
+	 * @param streaming true if spellcheckFile should read, correct and write the words a few at a time
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+	
+	/**
+	 * @return the cache of corrections or null if every word is scored against the dictionary
+	 */
+	public CorrectionCache getCorrectionCache() {
+		return this.correctionCache;
+	}
+	
+	/**
+	 * The cache is kept across calls to spellcheckFile and can be shared with other spellcheckers
+	 * 
+	 * @param correctionCache the cache of corrections, or null to score every word against the dictionary
+	 */
+	public void setCorrectionCache(CorrectionCache correctionCache) {
+		this.correctionCache = correctionCache;
+	}
+	
+	/**
+	 * @return the cache file of corrections or null if none is open
+	 */
+	public PersistentCorrectionCache getPersistentCorrectionCache() {
+		return this.persistentCorrectionCache;
+	}
+	
+	/**
+	 * Corrections are looked up in and appended to the cache file. Each dictionary and group of settings gets its own
+	 * file, named after the path and a hash of the configuration key, so the settings should be chosen before it is opened.
+	 * 
+	 * @param cacheFilePath
+	 * @return true if able to open the cache file
+	 */
+	public boolean ableToOpenPersistentCorrectionCache(String cacheFilePath) {
+		
+		if (cacheFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		closePersistentCorrectionCache();
+		
+		try {
+			this.persistentCorrectionCache = new PersistentCorrectionCache(cacheFilePath, this.configurationKey);
+		} catch (IOException e) {
+			System.err.println("IOException thrown while opening correction cache file " + cacheFilePath + ".");
+			e.printStackTrace();
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Close the cache file of corrections if one is open
+	 */
+	public void closePersistentCorrectionCache() {
+		
+		if (this.persistentCorrectionCache == null) {
+			return;
+		}
+		
+		try {
+			this.persistentCorrectionCache.close();
+		} catch (IOException e) {
+			System.err.println("IOException thrown while closing correction cache file.");
+			e.printStackTrace();
+		}
+		
+		this.persistentCorrectionCache = null;
+	}
+	
 
+	/**
+	 * @return the number of threads spellcheckFile spreads the words over
+	 */
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+	
+	/**
+	 * @param threadCount the number of threads spellcheckFile spreads the words over
+	 */
+	public void setThreadCount(int threadCount) {
+		
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * @return the number of threads the dictionary is split over when a single word is spell checked
+	 */
+	public int getDictionaryScanThreadCount() {
+		return this.dictionaryScanPool == null ? 1 : this.dictionaryScanPool.getParallelism();
+	}
+	
+	/**
+	 * Splitting the dictionary lowers the time taken to correct a single word against a large dictionary
+	 * 
+	 * @param dictionaryScanThreadCount the number of threads the dictionary is split over when a single word is spell checked
+	 */
+	public void setDictionaryScanThreadCount(int dictionaryScanThreadCount) {
+		
+		if (dictionaryScanThreadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		
+		if (this.dictionaryScanPool != null) {
+			this.dictionaryScanPool.shutdown();
+		}
+		
+		this.dictionaryScanPool = dictionaryScanThreadCount > 1 ? new ForkJoinPool(dictionaryScanThreadCount) : null;
+	}
+	
+	/**
+	 * @return the number of nutrition terms sharing the most n-grams with a word that are scored, or 0 if the n-gram index is not used
+	 */
+	public int getNGramCandidateCount() {
+		return this.nGramCandidateCount;
+	}
+	
+	/**
+	 * Only the nutrition terms sharing the most character bigrams and trigrams with a word are scored, so a word whose 
+	 * closest term is not among them is matched to the closest candidate, or to none if no term shares an n-gram with it.
+	 * 
+	 * @param nGramCandidateCount the number of nutrition terms sharing the most n-grams with a word that are scored, or 0 to not use the n-gram index
+	 */
+	public void setNGramCandidateCount(int nGramCandidateCount) {
+		
+		if (nGramCandidateCount < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		if (nGramCandidateCount > 0 && this.nGramIndex == null) {
+			this.nGramIndex = this.dictionary.getNGramIndex();
+		}
+		
+		this.nGramCandidateCount = nGramCandidateCount;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the most the length of a nutrition term can differ from the length of a word for it to be an n-gram candidate
+	 */
+	public int getNGramMaximumLengthDifference() {
+		return this.nGramMaximumLengthDifference;
+	}
+	
+	/**
+	 * @param nGramMaximumLengthDifference the most the length of a nutrition term can differ from the length of a word for it to be an n-gram candidate
+	 */
+	public void setNGramMaximumLengthDifference(int nGramMaximumLengthDifference) {
+		
+		if (nGramMaximumLengthDifference < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.nGramMaximumLengthDifference = nGramMaximumLengthDifference;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the constraint on the elements of the table that an alignment may pass through
+	 */
+	public DynamicTimeWarpWindow getWarpingWindow() {
+		return this.warpingWindow;
+	}
+	
+	/**
+	 * @return the band width of a Sakoe-Chiba band or the largest slope of an Itakura parallelogram
+	 */
+	public int getWarpingWindowSize() {
+		return this.warpingWindowSize;
+	}
+	
+	/**
+	 * Only the elements of the table inside the window are computed when nutrition terms are scored, so a narrower
+	 * window scores faster but may miss a match that needs more warping. The edits are still found over the whole table.
+	 * 
+	 * @param warpingWindow the constraint on the elements of the table that an alignment may pass through
+	 * @param warpingWindowSize the band width of a Sakoe-Chiba band or the largest slope of an Itakura parallelogram
+	 */
+	public void setWarpingWindow(DynamicTimeWarpWindow warpingWindow, int warpingWindowSize) {
+		
+		if (warpingWindow == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (warpingWindowSize < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		if (warpingWindow == DynamicTimeWarpWindow.ITAKURA && warpingWindowSize < 1) {
+			throw new IllegalArgumentException("The slope of an Itakura parallelogram must be at least 1.");
+		}
+		
+		this.warpingWindow = warpingWindow;
+		this.warpingWindowSize = warpingWindowSize;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the number of table elements above which getEdits only keeps some rows of the table
+	 */
+	public long getCheckpointedEditsCellCount() {
+		return this.checkpointedEditsCellCount;
+	}
+	
+	/**
+	 * A full table keeps every element, which runs out of memory for long strings such as whole ingredient lists. Above 
+	 * the given number of elements, getEdits keeps about the square root of the rows and works the others out again 
+	 * while reading the edits back. The edits are the same either way.
+	 * 
+	 * @param checkpointedEditsCellCount the number of table elements above which getEdits only keeps some rows of the table
+	 */
+	public void setCheckpointedEditsCellCount(long checkpointedEditsCellCount) {
+		
+		if (checkpointedEditsCellCount < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.checkpointedEditsCellCount = checkpointedEditsCellCount;
+	}
+	
 	/**
 	 * Returns a list of edits that transform the source into the target
 	 * 
 	 * @param source
 	 * @param target
-	 * @param ins_cost
-	 * @param del_cost
-	 * @param subs_cost
 	 * @return
 	 */
 	public String getEdits(String source, String target) {
 		
+		return getEditScript(source, target).toString();
+	}
+	
+	/**
+	 * Returns the edits that transform the source into the target, without writing them out as text
+	 * 
+	 * @param source
+	 * @param target
+	 * @return the edit script
+	 */
+	public EditScript getEditScript(String source, String target) {
+		
+		if (source == null || target == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
 		//Convert to lower case
 		source = source.toLowerCase();
 		target = target.toLowerCase();
 		
-		//Convert the source string into the target string
-		DynamicTimeWarpEditDistanceTable dynamicTimeWarpEditDistanceTable = new DynamicTimeWarpEditDistanceTable(target, source);
+		//Convert the source string into the target string, only keeping some rows of the table for long strings
+		BackTraceTable dynamicTimeWarpEditDistanceTable = null;
+		if ((long) target.length() * source.length() > this.checkpointedEditsCellCount) {
+			dynamicTimeWarpEditDistanceTable = new DynamicTimeWarpCheckpointedTable(target, source);
+		} else {
+			DynamicTimeWarpEditDistanceTable fullTable = this.dynamicTimeWarpEditDistanceTables.get();
+			fullTable.reset(target, source);
+			dynamicTimeWarpEditDistanceTable = fullTable;
+		}
 		dynamicTimeWarpEditDistanceTable.convertSourceToTarget();
 		
-		//Start at the end of the table and store the edits into a stack
-		Deque<String> edits = new ArrayDeque<String>();
-		TableElement currentElement = dynamicTimeWarpEditDistanceTable.getElement(dynamicTimeWarpEditDistanceTable.getTargetSize() - 1, dynamicTimeWarpEditDistanceTable.getSourceSize() - 1);
-		TableElement backTraceElement = null;
-		
-		//Loop through the best path and put it into a stack
-		String currentEdit = null;
+		//Start at the end of the table, so the edits are added from the last one
+		EditScript editScript = new EditScript(target.length() + source.length());
+		int currentColumn = target.length() - 1, currentRow = source.length() - 1;
+		int currentCost = dynamicTimeWarpEditDistanceTable.getAlignmentCost(currentColumn, currentRow), backTraceCost = 0;
+		byte backTraceDirection = BackTraceTable.BACK_TRACE_NONE;
 		
+		//Loop through the best path
 		while(true) {
 			
-			//Get the previous element corresponding to the minimum alignment distance
-			backTraceElement = currentElement.getBackTraceElement();
+			//Get the direction of the previous element corresponding to the minimum alignment distance
+			backTraceDirection = dynamicTimeWarpEditDistanceTable.getBackTraceDirection(currentColumn, currentRow);
 			
-			//Stop if the end has been reached
-			if (backTraceElement == null) {
-				if (currentElement.getAlignmentCost() == 0) {
-					//A character was matched
-					currentEdit = constructEditString(ACTION_CODE_MATCH, 
-							  dynamicTimeWarpEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset()),
-							  dynamicTimeWarpEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset()),
-							  currentElement.getSourceStringOffset() + 1, 
-						      currentElement.getTargetStringOffset() + 1,
-						      0);
-				} else {
-					//A character was warped
-					currentEdit = constructEditString(ACTION_CODE_WARP, 
-							      dynamicTimeWarpEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset()),
-							      dynamicTimeWarpEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset()),
-							      currentElement.getSourceStringOffset() + 1, 
-							      currentElement.getTargetStringOffset() + 1,
-							      1);
-				}
-				edits.push(currentEdit);
-				break;
-			}
-			
-			//Store the operation performed to get from the back trace to the current element
-			if (currentElement.getAlignmentCost() == backTraceElement.getAlignmentCost()) {
-				//A character was matched
-				currentEdit = constructEditString(ACTION_CODE_MATCH, 
-							  dynamicTimeWarpEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset()),
-							  dynamicTimeWarpEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset()),
-							  currentElement.getSourceStringOffset() + 1, 
-						      currentElement.getTargetStringOffset() + 1,
-						      0);
+			//The first element has no back trace, so its cost is compared with nothing
+			if (backTraceDirection == BackTraceTable.BACK_TRACE_NONE) {
+				backTraceCost = 0;
+			} else if (backTraceDirection == BackTraceTable.BACK_TRACE_FROM_SAME_SOURCE) {
+				backTraceCost = dynamicTimeWarpEditDistanceTable.getAlignmentCost(currentColumn, currentRow - 1);
+			} else if (backTraceDirection == BackTraceTable.BACK_TRACE_FROM_SAME_TARGET) {
+				backTraceCost = dynamicTimeWarpEditDistanceTable.getAlignmentCost(currentColumn - 1, currentRow);
 			} else {
-				//A character was warped
-				currentEdit = constructEditString(ACTION_CODE_WARP, 
-						      dynamicTimeWarpEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset()),
-						      dynamicTimeWarpEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset()),
-						      currentElement.getSourceStringOffset() + 1, 
-						      currentElement.getTargetStringOffset() + 1,
-						      1);
+				backTraceCost = dynamicTimeWarpEditDistanceTable.getAlignmentCost(currentColumn - 1, currentRow - 1);
 			}
 			
-			edits.push(currentEdit);
+			//Store the operation performed to get from the back trace to the current element, a match if the cost did not change, else a warp
+			editScript.addEditBefore(currentCost == backTraceCost ? EditScript.OPERATION_MATCH : EditScript.OPERATION_WARP, 
+					                 source.charAt(currentRow),
+					                 target.charAt(currentColumn),
+					                 currentRow + 1, 
+					                 currentColumn + 1,
+					                 currentCost == backTraceCost ? 0 : 1);
+			
+			//Stop if the end has been reached
+			if (backTraceDirection == BackTraceTable.BACK_TRACE_NONE) {
+				break;
+			}
 			
 			//Repeat the loop with the back trace element
-			currentElement = backTraceElement;
+			if (backTraceDirection != BackTraceTable.BACK_TRACE_FROM_SAME_TARGET) {
+				--currentRow;
+			}
+			if (backTraceDirection != BackTraceTable.BACK_TRACE_FROM_SAME_SOURCE) {
+				--currentColumn;
+			}
+			currentCost = backTraceCost;
 		}
 		
-		//Construct the edits string from the edits stack		
-		StringBuffer editString = new StringBuffer();
-		boolean firstTime = true;
-		while (!edits.isEmpty()) {
-			
-			currentEdit = edits.pop();
-			
-			if (firstTime) {
-				firstTime = false;
-			} else {
-				editString.append(COMMA_SEPARATOR);
+		return editScript;
+		
+	}
+	
+	/**
+	 * Words that were already corrected with the same settings are taken from the correction cache and then from the 
+	 * persistent correction cache, if there are any
+	 * 
+	 * @param word to be spell checked
+	 * @return the best matching nutrition term
+	 */
+	@Override
+	public String spellcheckWord(String word) {
+		
+		String correction = null;
+		
+		if (this.correctionCache != null) {
+			correction = this.correctionCache.get(this.configurationKey, word);
+			if (correction != null) {
+				return correction;
+			}
+		}
+		
+		//The cache file is only used with the settings it was opened with
+		PersistentCorrectionCache persistentCorrectionCache = this.persistentCorrectionCache;
+		if (persistentCorrectionCache != null && !persistentCorrectionCache.getConfigurationKey().equals(this.configurationKey)) {
+			persistentCorrectionCache = null;
+		}
+		
+		if (persistentCorrectionCache != null) {
+			correction = persistentCorrectionCache.get(word);
+		}
+		
+		if (correction == null) {
+			correction = findBestMatch(word);
+			if (persistentCorrectionCache != null) {
+				persistentCorrectionCache.put(word, correction);
 			}
-			
-			editString.append(currentEdit);
 		}
-				
-		return editString.toString();
 		
+		if (this.correctionCache != null) {
+			this.correctionCache.put(this.configurationKey, word, correction);
+		}
+		
+		return correction;
 	}
 	
 	/**
-	 * @param actionCode
-	 * @param sourceCharacter
-	 * @param targetCharacter
-	 * @param sourcePosition
-	 * @param targetPostion
-	 * @param cost
-	 * @return the edit string 
+	 * Only the alignment cost of each nutrition term is needed to pick the best match, so the terms are scored
+	 * with two rolling rows rather than with full tables, and handed to the best match selector straight away. Terms
+	 * whose lower bounds show that they cannot beat the best match so far are not aligned at all.
+	 * 
+	 * @param word to be spell checked
+	 * @return the best matching nutrition term or NULL if there is none
 	 */
-	private String constructEditString(String actionCode, char sourceCharacter, char targetCharacter, int sourcePosition, int targetPostion, int cost) {
+	private String findBestMatch(String word) {
 		
-		StringBuffer editString = new StringBuffer();
+		BestMatchSelector bestMatchSelector = new BestMatchSelector(true);
 		
-		editString.append(actionCode).append("(");
-		editString.append(SINGLE_QUOTE).append(sourceCharacter).append(SINGLE_QUOTE);
-		editString.append(COMMA_SEPARATOR);
-		editString.append(SINGLE_QUOTE).append(targetCharacter).append(SINGLE_QUOTE);
-		editString.append(COMMA_SEPARATOR);
-		editString.append(sourcePosition);
-		editString.append(COMMA_SEPARATOR);
-		editString.append(targetPostion);
-		editString.append(COMMA_SEPARATOR);
-		editString.append(cost);
-		editString.append(")");
+		if (this.nGramCandidateCount > 0) {
+			//Only score the nutrition terms that share the most n-grams with the word
+			for (String nutritionTerm : this.nGramIndex.getCandidateTerms(word, this.nGramCandidateCount, this.nGramMaximumLengthDifference)) {
+				scoreNutritionTerm(word, nutritionTerm, bestMatchSelector);
+			}
+		} else if (this.dictionaryScanPool != null) {
+			//Find the DTW distance between the word to spell check and each nutrition term, splitting the dictionary over the threads
+			bestMatchSelector = this.dictionaryScanPool.invoke(new DTWDictionaryScanTask(word, 0, this.dictionary.size()));
+		} else {
+			//Find the DTW distance between the word to spell check and each nutrition term
+			for (String nutritionTerm : this.dictionary) {
+				scoreNutritionTerm(word, nutritionTerm, bestMatchSelector);
+			}
+		}
 		
-		return editString.toString();
-
+		//Return the closest nutrition term to the list of corrected words
+		return bestMatchSelector.isMatchFound() ? bestMatchSelector.getBestMatch() : NO_MATCH_FOUND;
 	}
 	
 	/**
+	 * Score a nutrition term and offer it to the best match selector
+	 * 
 	 * @param word to be spell checked
-	 * @return the best matching nutrition term
+	 * @param nutritionTerm
+	 * @param bestMatchSelector
 	 */
-	private String spellcheckWord(String word) {
+	private void scoreNutritionTerm(String word, String nutritionTerm, BestMatchSelector bestMatchSelector) {
+		
+		int maximumAllowedCost = 0, stringLengthDifference = 0, costLimit = 0, matchingCost = 0;
 		
-		DynamicTimeWarpEditDistanceTable dynamicTimeWarpEditDistanceTable = null;
-		List<DynamicTimeWarpEditDistanceTable> wordMatchingAttemptResults = new ArrayList<DynamicTimeWarpEditDistanceTable>();
+		//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+		maximumAllowedCost = word.length() + nutritionTerm.length();
+		stringLengthDifference = Math.abs(word.length() - nutritionTerm.length());
 		
-		//Find the LED between the word to spell check and each nutrition term
-		for (String nutritionTerm : this.nutritionDictionary) {
-			dynamicTimeWarpEditDistanceTable = new DynamicTimeWarpEditDistanceTable(nutritionTerm, word);
-			dynamicTimeWarpEditDistanceTable.convertSourceToTarget();
-			wordMatchingAttemptResults.add(dynamicTimeWarpEditDistanceTable);
+		//A nutrition term can only be the best match if it costs less than the best match so far, or the same with a lower length difference
+		costLimit = bestMatchSelector.getLowestMatchingCost();
+		if (costLimit != Integer.MAX_VALUE && stringLengthDifference < bestMatchSelector.getLowestStringLengthDifference()) {
+			++costLimit;
 		}
 		
-		//Return the closest nutrition term to the list of corrected words
-		 return getBestMatch(wordMatchingAttemptResults);
+		//Only the alignment cost is needed, so the term is scored with two rolling rows rather than with a full table
+		matchingCost = this.dynamicTimeWarpScorers.get().getAlignmentCost(nutritionTerm, word, this.warpingWindow, this.warpingWindowSize, Math.min(maximumAllowedCost, costLimit));
+		if (matchingCost == DynamicTimeWarpScorer.COST_LIMIT_EXCEEDED) {
+			return;
+		}
+		
+		bestMatchSelector.offer(nutritionTerm, matchingCost, maximumAllowedCost, stringLengthDifference);
 	}
 	
 	/**
-	 * @param wordMatchingAttemptResults
-	 * @return the String with the best match
+	 * Scores a range of nutrition terms on a fork join pool
 	 */
-	private String getBestMatch(List<DynamicTimeWarpEditDistanceTable> wordMatchingAttemptResults) {
+	private class DTWDictionaryScanTask extends DictionaryScanTask {
 		
-		int lowestMatchingCost = Integer.MAX_VALUE, lowestStringLengthDifference = Integer.MAX_VALUE, lowestMatchingCostCandidate = 0, maximumAllowedCost = 0, lowestStringLengthDifferenceCandidate = 0;
-		TableElement lowestMatchingCostCandidateElement = null;
-		String bestMatch = null;
-		boolean matchFound = false;
+		private static final long serialVersionUID = 1L;
+		private String word;
 		
-		//Loop through the candidates to find the best match
-		for (DynamicTimeWarpEditDistanceTable dynamicTimeWarpEditDistanceTable : wordMatchingAttemptResults) {
-			
-			assert dynamicTimeWarpEditDistanceTable != null;
-			
-			//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
-			maximumAllowedCost = dynamicTimeWarpEditDistanceTable.getFullStringSubstitutionCost();
-			
-			//The lowest matching candidate is at the end of the table
-			lowestMatchingCostCandidateElement = dynamicTimeWarpEditDistanceTable.getElement(dynamicTimeWarpEditDistanceTable.getTargetSize() - 1, dynamicTimeWarpEditDistanceTable.getSourceSize() - 1);
-			lowestMatchingCostCandidate = lowestMatchingCostCandidateElement.getAlignmentCost();
-			lowestStringLengthDifferenceCandidate = Math.abs(dynamicTimeWarpEditDistanceTable.getSourceSize() - dynamicTimeWarpEditDistanceTable.getTargetSize());
-			//Get the lowest match that is below the maximum allowed
-			if ((lowestMatchingCostCandidate < lowestMatchingCost || (lowestMatchingCostCandidate == lowestMatchingCost && lowestStringLengthDifferenceCandidate < lowestStringLengthDifference)) && lowestMatchingCostCandidate < maximumAllowedCost) {
-				lowestMatchingCost = lowestMatchingCostCandidate;
-				lowestStringLengthDifference = lowestStringLengthDifferenceCandidate;
-				bestMatch = dynamicTimeWarpEditDistanceTable.getTarget();
-				matchFound = true;
-			}
+		DTWDictionaryScanTask(String word, int firstTermIndex, int lastTermIndex) {
+			super(DTWSpellchecker.this.dictionary, firstTermIndex, lastTermIndex);
+			this.word = word;
+		}
+		
+		@Override
+		protected BestMatchSelector createBestMatchSelector() {
+			return new BestMatchSelector(true);
 		}
 		
-		return matchFound == true ? bestMatch : NO_MATCH_FOUND;
+		@Override
+		protected void scoreNutritionTerm(String nutritionTerm, BestMatchSelector bestMatchSelector) {
+			DTWSpellchecker.this.scoreNutritionTerm(this.word, nutritionTerm, bestMatchSelector);
+		}
+		
+		@Override
+		protected DictionaryScanTask createSubtask(int firstTermIndex, int lastTermIndex) {
+			return new DTWDictionaryScanTask(this.word, firstTermIndex, lastTermIndex);
+		}
+	}
+	
+	/**
+	 * Corrections are cached under a key made of the dictionary and every setting that can change the best match
+	 */
+	private void updateConfigurationKey() {
 		
+		this.configurationKey = "DTW " + this.nGramCandidateCount + " " + this.nGramMaximumLengthDifference + " " + 
+		                        this.warpingWindow + " " + this.warpingWindowSize + " " + this.dictionary.getContentKey();
 	}
+	
 	/**
 	 * @param inputFilePath
 	 * @return the list of words in the text file having one word per line
 	 */
 	private List<String> getWordsFromTextFile(String inputFilePath) {
 		
-		String words = null;
+		String word = null;
 		List<String> returnValue = new ArrayList<String>();
 		try {
-			BufferedReader textFileReader = new BufferedReader(new FileReader(inputFilePath));
-			words = textFileReader.readLine();
-			while(words != null) {
-				if (words.trim().length() > 0) {
-					returnValue.add(words.trim().toLowerCase());
-				}
-				words = textFileReader.readLine();
+			//Blank lines are skipped and the words come back trimmed and in lower case
+			MappedTextFileReader textFileReader = new MappedTextFileReader(inputFilePath);
+			word = textFileReader.readWord();
+			while(word != null) {
+				returnValue.add(word);
+				word = textFileReader.readWord();
 			}
 			textFileReader.close();
 		} catch (FileNotFoundException e) {
@@ -293,21 +654,17 @@ public class DTWSpellchecker {
 	}
 
 	/**
-	 * This method loads all nutrition terms from the dictionary file and puts them into the internal dictionary set
-	 * 
-	 * @return true if able to load dictionary
+	 * @param dictionarySnapshotFilePath the snapshot file, or null to read the dictionary text file
+	 * @return the dictionary
+	 * @throws IllegalStateException if the dictionary cannot be loaded
 	 */
-	private boolean ableToLoadDictionaryFromFileInputFile() {
-		
-		List<String> nutritionTerms = getWordsFromTextFile(NUTRITION_DICTIONARY_FILE_NAME);
-		this.nutritionDictionary.addAll(nutritionTerms);
+	private static Dictionary loadDictionary(String dictionarySnapshotFilePath) {
 		
-		if (this.nutritionDictionary.size() > 0) {
-			return true;
-		} else {
-			return false;
+		try {
+			return dictionarySnapshotFilePath == null ? Dictionary.load(NUTRITION_DICTIONARY_FILE_NAME) : Dictionary.loadSnapshot(dictionarySnapshotFilePath);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to load dictionary from " + (dictionarySnapshotFilePath == null ? NUTRITION_DICTIONARY_FILE_NAME : dictionarySnapshotFilePath) + ".", e);
 		}
-
 	}
 	
 	/**
@@ -0,0 +1,139 @@
+package menon.cs6890.assignment5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed index of the strings obtained by deleting up to a maximum number of characters from each dictionary
+ * term (SymSpell). Two strings within that many single character edits of each other always share such a deletion
+ * variant, so the candidates for a word are found by hash lookups of the word's own deletion variants, at a cost that
+ * does not depend on the size of the dictionary.
+ * 
+ * Each deletion variant maps to the scan indexes of the terms it comes from, so the candidates can be returned in the
+ * order the dictionary is scanned and equally good terms are told apart the same way as in a scan.
+ */
+public class DeletionIndex {
+	
+	private String[] terms;
+	private Map<String, int[]> scanIndexesByDeletionVariant;
+	private int maximumDeletions;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param terms in the order the dictionary is scanned
+	 * @param maximumDeletions the most characters deleted from each term
+	 */
+	public DeletionIndex(Collection<String> terms, int maximumDeletions) {
+		
+		if (terms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (maximumDeletions < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.maximumDeletions = maximumDeletions;
+		this.terms = terms.toArray(new String[terms.size()]);
+		this.scanIndexesByDeletionVariant = new HashMap<String, int[]>();
+		
+		//While the index is built the first element of each array is the number of scan indexes in it
+		int[] scanIndexes = null;
+		for (int scanIndex = 0; scanIndex < this.terms.length; ++scanIndex) {
+			for (String deletionVariant : getDeletionVariants(this.terms[scanIndex])) {
+				scanIndexes = this.scanIndexesByDeletionVariant.get(deletionVariant);
+				if (scanIndexes == null) {
+					scanIndexes = new int[2];
+					this.scanIndexesByDeletionVariant.put(deletionVariant, scanIndexes);
+				} else if (scanIndexes[0] + 1 == scanIndexes.length) {
+					scanIndexes = Arrays.copyOf(scanIndexes, scanIndexes.length * 2);
+					this.scanIndexesByDeletionVariant.put(deletionVariant, scanIndexes);
+				}
+				scanIndexes[++scanIndexes[0]] = scanIndex;
+			}
+		}
+		
+		//Trim the arrays down to the scan indexes alone
+		for (Map.Entry<String, int[]> entry : this.scanIndexesByDeletionVariant.entrySet()) {
+			scanIndexes = entry.getValue();
+			entry.setValue(Arrays.copyOfRange(scanIndexes, 1, scanIndexes[0] + 1));
+		}
+	}
+	
+	/**
+	 * @param word
+	 * @return the terms that share a deletion variant with the word in scan order, which include every term within 
+	 *         the maximum number of single character edits of the word
+	 */
+	public List<String> getCandidateTerms(String word) {
+		
+		if (word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		BitSet candidateScanIndexes = new BitSet(this.terms.length);
+		int[] scanIndexes = null;
+		
+		for (String deletionVariant : getDeletionVariants(word)) {
+			scanIndexes = this.scanIndexesByDeletionVariant.get(deletionVariant);
+			if (scanIndexes != null) {
+				for (int scanIndex : scanIndexes) {
+					candidateScanIndexes.set(scanIndex);
+				}
+			}
+		}
+		
+		List<String> candidateTerms = new ArrayList<String>(candidateScanIndexes.cardinality());
+		for (int scanIndex = candidateScanIndexes.nextSetBit(0); scanIndex >= 0; scanIndex = candidateScanIndexes.nextSetBit(scanIndex + 1)) {
+			candidateTerms.add(this.terms[scanIndex]);
+		}
+		
+		return candidateTerms;
+	}
+	
+	/**
+	 * @param string
+	 * @return the string itself and every distinct string obtained by deleting up to the maximum number of characters from it
+	 */
+	private Set<String> getDeletionVariants(String string) {
+		
+		Set<String> deletionVariants = new HashSet<String>();
+		List<String> currentVariants = new ArrayList<String>(), nextVariants = null;
+		String deletionVariant = null;
+		
+		deletionVariants.add(string);
+		currentVariants.add(string);
+		
+		//Delete one more character from each of the variants found in the previous pass
+		for (int deletions = 1; deletions <= this.maximumDeletions; ++deletions) {
+			nextVariants = new ArrayList<String>();
+			for (String currentVariant : currentVariants) {
+				for (int characterIndex = 0; characterIndex < currentVariant.length(); ++characterIndex) {
+					deletionVariant = currentVariant.substring(0, characterIndex) + currentVariant.substring(characterIndex + 1);
+					if (deletionVariants.add(deletionVariant)) {
+						nextVariants.add(deletionVariant);
+					}
+				}
+			}
+			currentVariants = nextVariants;
+		}
+		
+		return deletionVariants;
+	}
+	
+	/**
+	 * @return the most characters deleted from each term
+	 */
+	public int getMaximumDeletions() {
+		return this.maximumDeletions;
+	}
+
+}
@@ -0,0 +1,442 @@
+package menon.cs6890.assignment5;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable set of nutrition terms that any number of spellcheckers can share, so the terms are loaded once however
+ * many spellcheckers there are. The structures built from the terms, such as the trie, automaton, BK-trees, deletion
+ * indexes, n-gram index and bit parallel patterns, are built the first time a spellchecker asks for them and are then shared as well.
+ * They are never changed once built, so several threads can use them at once.
+ * <p>
+ * A compact dictionary keeps its terms only in the automaton, which takes a fraction of the memory of a set and an
+ * array of strings. Its terms are scanned in lexicographic order, and each term is turned into a String as it is
+ * scanned, so a linear scan is slower than with an ordinary dictionary.
+ */
+public final class Dictionary implements Iterable<String> {
+
+	private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+	private final Set<String> nutritionTerms;
+	private final String[] scanOrder;
+	private final DictionarySnapshot dictionarySnapshot;
+	private DictionaryTrie dictionaryTrie;
+	private DictionaryAutomaton dictionaryAutomaton;
+	private Map<String, BurkhardKellerTree> burkhardKellerTrees;
+	private Map<Integer, DeletionIndex> deletionIndexes;
+	private NGramIndex nGramIndex;
+	private Map<String, BitParallelPattern> bitParallelPatterns;
+	private String contentKey;
+
+	/**
+	 * Constructor
+	 *
+	 * @param nutritionTerms
+	 */
+	public Dictionary(Collection<String> nutritionTerms) {
+
+		this(toSet(nutritionTerms), null, null);
+	}
+
+	/**
+	 * Constructor for a compact dictionary, which keeps its terms only in the automaton
+	 *
+	 * @param dictionaryAutomaton whose terms are scanned in lexicographic order
+	 */
+	public Dictionary(final DictionaryAutomaton dictionaryAutomaton) {
+
+		if (dictionaryAutomaton == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		//The terms are enumerated in lexicographic order, so the automaton has to break ties in that order too
+		if (dictionaryAutomaton.isScanOrderKept()) {
+			throw new IllegalArgumentException("The automaton of a compact dictionary must scan its terms in lexicographic order.");
+		}
+
+		if (dictionaryAutomaton.size() == 0) {
+			throw new IllegalArgumentException("A dictionary needs at least one term.");
+		}
+
+		//The terms are looked up and enumerated through the automaton rather than copied into a set
+		this.nutritionTerms = new AbstractSet<String>() {
+
+			@Override
+			public boolean contains(Object term) {
+				return term instanceof String && dictionaryAutomaton.contains((String) term);
+			}
+
+			@Override
+			public Iterator<String> iterator() {
+				return dictionaryAutomaton.iterator();
+			}
+
+			@Override
+			public int size() {
+				return dictionaryAutomaton.size();
+			}
+		};
+		this.scanOrder = null;
+		this.dictionarySnapshot = null;
+		this.dictionaryTrie = null;
+		this.dictionaryAutomaton = dictionaryAutomaton;
+		this.burkhardKellerTrees = new HashMap<String, BurkhardKellerTree>();
+		this.deletionIndexes = new HashMap<Integer, DeletionIndex>();
+		this.nGramIndex = null;
+		this.bitParallelPatterns = null;
+		this.contentKey = null;
+	}
+
+	/**
+	 * @param nutritionTerms
+	 * @param scanOrder the terms in the order they are scanned, or null for the order of the set
+	 * @param dictionarySnapshot the snapshot the terms were read from, or null
+	 */
+	private Dictionary(Set<String> nutritionTerms, String[] scanOrder, DictionarySnapshot dictionarySnapshot) {
+
+		if (nutritionTerms.isEmpty()) {
+			throw new IllegalArgumentException("A dictionary needs at least one term.");
+		}
+
+		this.nutritionTerms = Collections.unmodifiableSet(nutritionTerms);
+		this.scanOrder = scanOrder == null ? nutritionTerms.toArray(new String[nutritionTerms.size()]) : scanOrder;
+		this.dictionarySnapshot = dictionarySnapshot;
+		this.dictionaryTrie = dictionarySnapshot == null ? null : dictionarySnapshot.getDictionaryTrie();
+		this.dictionaryAutomaton = null;
+		this.burkhardKellerTrees = new HashMap<String, BurkhardKellerTree>();
+		this.deletionIndexes = new HashMap<Integer, DeletionIndex>();
+		this.nGramIndex = null;
+		this.bitParallelPatterns = null;
+		this.contentKey = null;
+	}
+
+	/**
+	 * @param dictionaryFilePath text file with one term per line
+	 * @return the dictionary
+	 * @throws IOException if the file cannot be read or has no terms
+	 */
+	public static Dictionary load(String dictionaryFilePath) throws IOException {
+
+		return new Dictionary(readNutritionTerms(dictionaryFilePath), null, null);
+	}
+
+	/**
+	 * The terms are only held in a set while the automaton is built
+	 *
+	 * @param dictionaryFilePath text file with one term per line
+	 * @return the compact dictionary
+	 * @throws IOException if the file cannot be read or has no terms
+	 */
+	public static Dictionary loadCompact(String dictionaryFilePath) throws IOException {
+
+		return new Dictionary(new DictionaryAutomaton(readNutritionTerms(dictionaryFilePath)));
+	}
+
+	/**
+	 * @param dictionaryFilePath text file with one term per line
+	 * @return the distinct terms in the file
+	 * @throws IOException if the file cannot be read or has no terms
+	 */
+	private static Set<String> readNutritionTerms(String dictionaryFilePath) throws IOException {
+
+		if (dictionaryFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		Set<String> nutritionTerms = new HashSet<String>();
+
+		MappedTextFileReader textFileReader = new MappedTextFileReader(dictionaryFilePath);
+		try {
+			String word = textFileReader.readWord();
+			while (word != null) {
+				nutritionTerms.add(word);
+				word = textFileReader.readWord();
+			}
+		} finally {
+			textFileReader.close();
+		}
+
+		if (nutritionTerms.isEmpty()) {
+			throw new IOException("Dictionary file " + dictionaryFilePath + " has no terms.");
+		}
+
+		return nutritionTerms;
+	}
+
+	/**
+	 * The BK-tree and trie in the snapshot are used instead of being built again
+	 *
+	 * @param snapshotFilePath snapshot written by DictionarySnapshot
+	 * @return the dictionary
+	 * @throws IOException if the snapshot cannot be read or has no terms
+	 */
+	public static Dictionary loadSnapshot(String snapshotFilePath) throws IOException {
+
+		DictionarySnapshot dictionarySnapshot = DictionarySnapshot.load(snapshotFilePath);
+		String[] scanOrder = dictionarySnapshot.getNutritionTerms();
+
+		if (scanOrder.length == 0) {
+			throw new IOException("Snapshot file " + snapshotFilePath + " has no terms.");
+		}
+
+		//The snapshot keeps the terms in the order they are scanned
+		return new Dictionary(new HashSet<String>(Arrays.asList(scanOrder)), scanOrder, dictionarySnapshot);
+	}
+
+	/**
+	 * @return the nutrition terms, which cannot be changed
+	 */
+	public Set<String> getNutritionTerms() {
+		return this.nutritionTerms;
+	}
+
+	/**
+	 * @param word
+	 * @return true if the word is a nutrition term
+	 */
+	public boolean contains(String word) {
+		return this.nutritionTerms.contains(word);
+	}
+
+	/**
+	 * @return the number of nutrition terms
+	 */
+	public int size() {
+		return this.scanOrder == null ? this.dictionaryAutomaton.size() : this.scanOrder.length;
+	}
+
+	/**
+	 * @return true if the terms are only kept in the automaton
+	 */
+	public boolean isCompact() {
+		return this.scanOrder == null;
+	}
+
+	/**
+	 * @return the nutrition terms in the order the spellcheckers scan them
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return iterator(0);
+	}
+
+	/**
+	 * @param firstScanIndex position in scan order of the first term returned
+	 * @return the nutrition terms in the order the spellcheckers scan them, from the given one
+	 */
+	Iterator<String> iterator(final int firstScanIndex) {
+
+		if (this.scanOrder == null) {
+			return this.dictionaryAutomaton.iterator(firstScanIndex);
+		}
+
+		if (firstScanIndex < 0 || firstScanIndex > this.scanOrder.length) {
+			throw new IllegalArgumentException("Scan index " + firstScanIndex + " is not between 0 and " + this.scanOrder.length + ".");
+		}
+
+		return new Iterator<String>() {
+
+			private int nextScanIndex = firstScanIndex;
+
+			@Override
+			public boolean hasNext() {
+				return this.nextScanIndex < Dictionary.this.scanOrder.length;
+			}
+
+			@Override
+			public String next() {
+
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				return Dictionary.this.scanOrder[this.nextScanIndex++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("The dictionary cannot be changed.");
+			}
+		};
+	}
+
+	/**
+	 * Equally good matches are picked in scan order, so two dictionaries only give the same corrections if they have
+	 * the same terms in the same scan order. Spellcheckers put this key in the key of their cached corrections.
+	 *
+	 * @return a hash of the nutrition terms in scan order, in hexadecimal
+	 */
+	public synchronized String getContentKey() {
+
+		if (this.contentKey == null) {
+			MessageDigest messageDigest = null;
+			try {
+				messageDigest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("Every Java platform has to support " + CONTENT_HASH_ALGORITHM + ".", e);
+			}
+
+			for (String nutritionTerm : this) {
+				messageDigest.update(nutritionTerm.getBytes(StandardCharsets.UTF_8));
+				messageDigest.update((byte) '\n');
+			}
+
+			StringBuilder contentKey = new StringBuilder();
+			for (byte hashByte : messageDigest.digest()) {
+				contentKey.append(Character.forDigit((hashByte >> 4) & 0xF, 16)).append(Character.forDigit(hashByte & 0xF, 16));
+			}
+			this.contentKey = contentKey.toString();
+		}
+
+		return this.contentKey;
+	}
+
+	/**
+	 * The array is shared, so it must not be changed. A compact dictionary has no array, so a new one is made.
+	 *
+	 * @return the nutrition terms in the order the spellcheckers scan them
+	 */
+	String[] getScanOrder() {
+		return this.scanOrder == null ? getScanOrderList().toArray(new String[size()]) : this.scanOrder;
+	}
+
+	/**
+	 * @return the trie of the nutrition terms
+	 */
+	public synchronized DictionaryTrie getDictionaryTrie() {
+
+		if (this.dictionaryTrie == null) {
+			this.dictionaryTrie = new DictionaryTrie(getScanOrderList());
+		}
+
+		return this.dictionaryTrie;
+	}
+
+	/**
+	 * @return the minimal acyclic automaton of the nutrition terms
+	 */
+	public synchronized DictionaryAutomaton getDictionaryAutomaton() {
+
+		if (this.dictionaryAutomaton == null) {
+			this.dictionaryAutomaton = new DictionaryAutomaton(getScanOrderList(), true);
+		}
+
+		return this.dictionaryAutomaton;
+	}
+
+	/**
+	 * The edit distance is only a metric when insertions and deletions cost 1, and the tree is of no use otherwise
+	 *
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @return the BK-tree of the nutrition terms placed with the given costs
+	 */
+	public synchronized BurkhardKellerTree getBurkhardKellerTree(int insertionCost, int deletionCost, int substitutionCost) {
+
+		String costKey = insertionCost + " " + deletionCost + " " + substitutionCost;
+		BurkhardKellerTree burkhardKellerTree = this.burkhardKellerTrees.get(costKey);
+
+		if (burkhardKellerTree == null && this.dictionarySnapshot != null) {
+			burkhardKellerTree = this.dictionarySnapshot.getBurkhardKellerTree(insertionCost, deletionCost, substitutionCost);
+		}
+
+		if (burkhardKellerTree == null) {
+			burkhardKellerTree = new BurkhardKellerTree(getScanOrderList(), new LevenshteinEditDistanceScorer(insertionCost, deletionCost, substitutionCost));
+		}
+
+		this.burkhardKellerTrees.put(costKey, burkhardKellerTree);
+		return burkhardKellerTree;
+	}
+
+	/**
+	 * @param maximumDeletions
+	 * @return the deletion index of the nutrition terms with up to the given number of deletions
+	 */
+	public synchronized DeletionIndex getDeletionIndex(int maximumDeletions) {
+
+		DeletionIndex deletionIndex = this.deletionIndexes.get(maximumDeletions);
+
+		if (deletionIndex == null) {
+			deletionIndex = new DeletionIndex(getScanOrderList(), maximumDeletions);
+			this.deletionIndexes.put(maximumDeletions, deletionIndex);
+		}
+
+		return deletionIndex;
+	}
+
+	/**
+	 * @return the n-gram index of the nutrition terms, which numbers the terms in scan order
+	 */
+	public synchronized NGramIndex getNGramIndex() {
+		
+		if (this.nGramIndex == null) {
+			this.nGramIndex = new NGramIndex(getScanOrderList());
+		}
+		
+		return this.nGramIndex;
+	}
+	
+	/**
+	 * @return the bit parallel pattern of each nutrition term, which cannot be changed
+	 */
+	public synchronized Map<String, BitParallelPattern> getBitParallelPatterns() {
+
+		if (this.bitParallelPatterns == null) {
+			Map<String, BitParallelPattern> bitParallelPatterns = new HashMap<String, BitParallelPattern>();
+			for (String nutritionTerm : this) {
+				bitParallelPatterns.put(nutritionTerm, new BitParallelPattern(nutritionTerm));
+			}
+			this.bitParallelPatterns = Collections.unmodifiableMap(bitParallelPatterns);
+		}
+
+		return this.bitParallelPatterns;
+	}
+
+	/**
+	 * The trie, automaton and BK-trees are built in scan order and keep the scan index of each term, so that of equally
+	 * good matches they pick the one a scan would. The terms of a compact dictionary are only copied into a list while a structure is built from them.
+	 *
+	 * @return the nutrition terms in scan order
+	 */
+	private List<String> getScanOrderList() {
+
+		if (this.scanOrder == null) {
+			List<String> scanOrder = new ArrayList<String>(size());
+			for (String nutritionTerm : this) {
+				scanOrder.add(nutritionTerm);
+			}
+			return Collections.unmodifiableList(scanOrder);
+		}
+
+		return Collections.unmodifiableList(Arrays.asList(this.scanOrder));
+	}
+
+	/**
+	 * @param nutritionTerms
+	 * @return a copy of the nutrition terms as a set
+	 */
+	private static Set<String> toSet(Collection<String> nutritionTerms) {
+
+		if (nutritionTerms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		return new HashSet<String>(nutritionTerms);
+	}
+
+}
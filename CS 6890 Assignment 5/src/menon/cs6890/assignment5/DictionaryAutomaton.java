@@ -0,0 +1,740 @@
+package menon.cs6890.assignment5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Minimal acyclic automaton (DAWG) of dictionary terms. Terms that share a prefix share the states of a trie, and in
+ * addition states with the same suffixes are merged, so a large vocabulary takes a small fraction of the memory of a set
+ * of strings. The automaton is built from the sorted terms in one pass, minimizing as it goes (Daciuk et al.).
+ *
+ * The states and transitions are held in flat arrays. The transitions of a state are contiguous and sorted by label,
+ * and each state knows how many terms can be reached from it, so the terms can be enumerated and numbered in
+ * lexicographic order without storing them.
+ *
+ * States are shared between terms, so the order equally good terms are offered in cannot be kept at the states. It is
+ * kept by term number instead: the automaton can be asked to keep the position of each term in the order the terms
+ * were given, which is the order the dictionary is scanned. Otherwise the terms are scanned in lexicographic order.
+ */
+public class DictionaryAutomaton implements Iterable<String> {
+
+	public static final int NO_STATE = -1;
+	public static final int NOT_A_TERM = -1;
+	private static final int ROOT_STATE = 0;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] firstTransitions;
+	private int[] termCounts;
+	private boolean[] finalStates;
+	private char[] transitionLabels;
+	private int[] transitionTargets;
+	private int[] scanIndexes;
+	private int stateCount;
+	private int maximumDepth;
+
+	/**
+	 * State of the automaton while it is being built. A state is only compared with others once all of its
+	 * transitions are fixed, so two states are equivalent when they agree on being final and have the same labels
+	 * leading to the very same states.
+	 */
+	private static final class BuildState {
+
+		private boolean finalState;
+		private char[] labels = new char[2];
+		private BuildState[] targets = new BuildState[2];
+		private int transitionCount;
+		private int hashCode;
+		private int termCount;
+		private int stateNumber = NO_STATE;
+
+		void addTransition(char label, BuildState target) {
+
+			if (this.transitionCount == this.labels.length) {
+				this.labels = Arrays.copyOf(this.labels, this.transitionCount * 2);
+				this.targets = Arrays.copyOf(this.targets, this.transitionCount * 2);
+			}
+
+			this.labels[this.transitionCount] = label;
+			this.targets[this.transitionCount++] = target;
+		}
+
+		/**
+		 * Called once all transitions are fixed, which is after all of the targets have been frozen
+		 */
+		void freeze() {
+
+			int hash = this.finalState ? 1 : 0;
+			this.termCount = this.finalState ? 1 : 0;
+			for (int transition = 0; transition < this.transitionCount; ++transition) {
+				hash = 31 * (31 * hash + this.labels[transition]) + System.identityHashCode(this.targets[transition]);
+				this.termCount += this.targets[transition].termCount;
+			}
+			this.hashCode = hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+
+			if (this == other) {
+				return true;
+			}
+
+			if (!(other instanceof BuildState)) {
+				return false;
+			}
+
+			BuildState otherState = (BuildState) other;
+			if (this.hashCode != otherState.hashCode || this.finalState != otherState.finalState || this.transitionCount != otherState.transitionCount) {
+				return false;
+			}
+
+			for (int transition = 0; transition < this.transitionCount; ++transition) {
+				if (this.labels[transition] != otherState.labels[transition] || this.targets[transition] != otherState.targets[transition]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * Constructor for an automaton whose terms are scanned in lexicographic order
+	 *
+	 * @param terms
+	 */
+	public DictionaryAutomaton(Collection<String> terms) {
+
+		this(terms, false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param terms
+	 * @param scanOrderKept true to scan the terms in the order they are given rather than in lexicographic order
+	 */
+	public DictionaryAutomaton(Collection<String> terms, boolean scanOrderKept) {
+
+		if (terms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		String[] sortedTerms = terms.toArray(new String[terms.size()]);
+		Arrays.sort(sortedTerms);
+
+		freeze(build(sortedTerms));
+
+		this.scanIndexes = null;
+		if (scanOrderKept && !Arrays.asList(sortedTerms).equals(new ArrayList<String>(terms))) {
+			keepScanOrder(terms);
+		}
+	}
+
+	/**
+	 * Add the sorted terms one at a time. Only the states along the previous term can still change, so when the next
+	 * term leaves that path the states below the common prefix are replaced by equivalent states already registered,
+	 * or registered themselves.
+	 *
+	 * @param sortedTerms
+	 * @return the root state
+	 */
+	private BuildState build(String[] sortedTerms) {
+
+		Map<BuildState, BuildState> register = new HashMap<BuildState, BuildState>();
+		BuildState[] path = new BuildState[INITIAL_CAPACITY];
+		path[0] = new BuildState();
+		String previousTerm = "";
+		int commonPrefixLength = 0;
+
+		for (String term : sortedTerms) {
+
+			if (term.equals(previousTerm) && term.length() > 0) {
+				continue;
+			}
+
+			commonPrefixLength = 0;
+			while (commonPrefixLength < term.length() && commonPrefixLength < previousTerm.length() && term.charAt(commonPrefixLength) == previousTerm.charAt(commonPrefixLength)) {
+				++commonPrefixLength;
+			}
+
+			minimizePath(path, previousTerm.length(), commonPrefixLength, register);
+
+			if (path.length <= term.length()) {
+				path = Arrays.copyOf(path, Math.max(path.length * 2, term.length() + 1));
+			}
+
+			for (int depth = commonPrefixLength; depth < term.length(); ++depth) {
+				path[depth + 1] = new BuildState();
+				path[depth].addTransition(term.charAt(depth), path[depth + 1]);
+			}
+			path[term.length()].finalState = true;
+
+			this.maximumDepth = Math.max(this.maximumDepth, term.length());
+			previousTerm = term;
+		}
+
+		minimizePath(path, previousTerm.length(), 0, register);
+		path[0].freeze();
+
+		return path[0];
+	}
+
+	/**
+	 * Replace or register the states on the path from the deepest one up to just below the given depth
+	 *
+	 * @param path
+	 * @param pathLength
+	 * @param depth
+	 * @param register
+	 */
+	private static void minimizePath(BuildState[] path, int pathLength, int depth, Map<BuildState, BuildState> register) {
+
+		BuildState state = null, equivalentState = null;
+
+		for (int stateDepth = pathLength; stateDepth > depth; --stateDepth) {
+
+			state = path[stateDepth];
+			state.freeze();
+
+			equivalentState = register.get(state);
+			if (equivalentState == null) {
+				register.put(state, state);
+			} else {
+				path[stateDepth - 1].targets[path[stateDepth - 1].transitionCount - 1] = equivalentState;
+			}
+		}
+	}
+
+	/**
+	 * Number the states depth first and copy them into the flat arrays
+	 *
+	 * @param root
+	 */
+	private void freeze(BuildState root) {
+
+		List<BuildState> states = new ArrayList<BuildState>();
+		int transitionCount = 0;
+
+		//Number each state the first time it is reached
+		BuildState[] pendingStates = new BuildState[INITIAL_CAPACITY];
+		int pendingStateCount = 0;
+		BuildState state = null, target = null;
+
+		root.stateNumber = states.size();
+		states.add(root);
+		pendingStates[pendingStateCount++] = root;
+
+		while (pendingStateCount > 0) {
+			state = pendingStates[--pendingStateCount];
+			transitionCount += state.transitionCount;
+			for (int transition = 0; transition < state.transitionCount; ++transition) {
+				target = state.targets[transition];
+				if (target.stateNumber == NO_STATE) {
+					target.stateNumber = states.size();
+					states.add(target);
+					if (pendingStateCount == pendingStates.length) {
+						pendingStates = Arrays.copyOf(pendingStates, pendingStateCount * 2);
+					}
+					pendingStates[pendingStateCount++] = target;
+				}
+			}
+		}
+
+		this.stateCount = states.size();
+		this.firstTransitions = new int[this.stateCount + 1];
+		this.termCounts = new int[this.stateCount];
+		this.finalStates = new boolean[this.stateCount];
+		this.transitionLabels = new char[transitionCount];
+		this.transitionTargets = new int[transitionCount];
+
+		int nextTransition = 0;
+		for (int stateNumber = 0; stateNumber < this.stateCount; ++stateNumber) {
+			state = states.get(stateNumber);
+			this.firstTransitions[stateNumber] = nextTransition;
+			this.finalStates[stateNumber] = state.finalState;
+			this.termCounts[stateNumber] = state.termCount;
+			for (int transition = 0; transition < state.transitionCount; ++transition) {
+				this.transitionLabels[nextTransition] = state.labels[transition];
+				this.transitionTargets[nextTransition++] = state.targets[transition].stateNumber;
+			}
+		}
+		this.firstTransitions[this.stateCount] = nextTransition;
+	}
+
+	/**
+	 * Number the terms in the order they are given. A term given more than once keeps its first position.
+	 *
+	 * @param terms
+	 */
+	private void keepScanOrder(Collection<String> terms) {
+
+		this.scanIndexes = new int[size()];
+		Arrays.fill(this.scanIndexes, Integer.MAX_VALUE);
+
+		int scanIndex = 0, termNumber = 0;
+		for (String term : terms) {
+			termNumber = getTermNumber(term);
+			this.scanIndexes[termNumber] = Math.min(this.scanIndexes[termNumber], scanIndex++);
+		}
+	}
+
+	/**
+	 * Offer every term that costs less than both the cost limit and the best match so far to the best match selector,
+	 * walking the automaton depth first the same way as DictionaryTrie. A term is only turned into a String when it
+	 * is offered, together with its scan index. The first term below a state comes first in lexicographic order, so
+	 * when the terms are scanned in that order a branch that can at best tie the best match is only followed if it
+	 * starts earlier. Otherwise such a branch is always followed.
+	 *
+	 * @param word
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @param costLimit
+	 * @param bestMatchSelector
+	 */
+	public void findClosestTerms(String word, int insertionCost, int deletionCost, int substitutionCost, int costLimit, BestMatchSelector bestMatchSelector) {
+
+		if (word == null || bestMatchSelector == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		//One row per depth, each as long as the word plus the null character
+		int rowSize = word.length() + 1;
+		int[] rows = new int[(this.maximumDepth + 1) * rowSize];
+		char[] prefix = new char[this.maximumDepth];
+
+		//The row of the root is the cost of moving along the word from the null character
+		for (int sourceStringIndex = 0; sourceStringIndex < rowSize; ++sourceStringIndex) {
+			rows[sourceStringIndex] = sourceStringIndex;
+		}
+
+		if (this.finalStates[ROOT_STATE] && word.length() < costLimit) {
+			bestMatchSelector.offer("", word.length(), word.length(), word.length(), getScanIndex(0));
+		}
+
+		int[] pendingTransitions = new int[INITIAL_CAPACITY], pendingDepths = new int[INITIAL_CAPACITY], pendingTermNumbers = new int[INITIAL_CAPACITY];
+		int pendingTransitionCount = 0, transition = 0, state = ROOT_STATE, depth = 0, termNumber = 0, lowestMatchingCost = 0;
+		int rowOffset = 0, previousRowOffset = 0, lowestCostInRow = 0, distanceFromDiagonal = 0;
+		char label;
+
+		//Transitions are pushed in reverse so that they are followed in lexicographic order, each with the number of the first term below it
+		termNumber = this.termCounts[ROOT_STATE];
+		for (transition = this.firstTransitions[ROOT_STATE + 1] - 1; transition >= this.firstTransitions[ROOT_STATE]; --transition) {
+			if (pendingTransitionCount == pendingTransitions.length) {
+				pendingTransitions = Arrays.copyOf(pendingTransitions, pendingTransitionCount * 2);
+				pendingDepths = Arrays.copyOf(pendingDepths, pendingTransitionCount * 2);
+				pendingTermNumbers = Arrays.copyOf(pendingTermNumbers, pendingTransitionCount * 2);
+			}
+			termNumber -= this.termCounts[this.transitionTargets[transition]];
+			pendingTransitions[pendingTransitionCount] = transition;
+			pendingDepths[pendingTransitionCount] = 1;
+			pendingTermNumbers[pendingTransitionCount++] = termNumber;
+		}
+
+		while (pendingTransitionCount > 0) {
+
+			transition = pendingTransitions[--pendingTransitionCount];
+			depth = pendingDepths[pendingTransitionCount];
+			termNumber = pendingTermNumbers[pendingTransitionCount];
+			state = this.transitionTargets[transition];
+			label = this.transitionLabels[transition];
+			prefix[depth - 1] = label;
+
+			//Compute the row of this prefix from the row of its parent, which is the last row computed one level up
+			rowOffset = depth * rowSize;
+			previousRowOffset = rowOffset - rowSize;
+			rows[rowOffset] = depth;
+			lowestCostInRow = depth;
+
+			for (int sourceStringIndex = 1; sourceStringIndex < rowSize; ++sourceStringIndex) {
+
+				if (label == word.charAt(sourceStringIndex - 1)) {
+					distanceFromDiagonal = rows[previousRowOffset + sourceStringIndex - 1];
+				} else {
+					distanceFromDiagonal = rows[previousRowOffset + sourceStringIndex - 1] + substitutionCost;
+				}
+
+				rows[rowOffset + sourceStringIndex] = Math.min(Math.min(rows[previousRowOffset + sourceStringIndex] + insertionCost,
+						                                                rows[rowOffset + sourceStringIndex - 1] + deletionCost),
+						                                       distanceFromDiagonal);
+				lowestCostInRow = Math.min(lowestCostInRow, rows[rowOffset + sourceStringIndex]);
+			}
+
+			//Only a term that costs less than both the limit and the best match so far, or as much as the best match but earlier in scan order, is of interest
+			lowestMatchingCost = bestMatchSelector.getLowestMatchingCost();
+			if (lowestCostInRow >= costLimit || lowestCostInRow > lowestMatchingCost ||
+			    (lowestCostInRow == lowestMatchingCost && this.scanIndexes == null && termNumber > bestMatchSelector.getBestScanIndex())) {
+				continue;
+			}
+
+			//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+			if (this.finalStates[state] && rows[rowOffset + rowSize - 1] < costLimit) {
+				bestMatchSelector.offer(new String(prefix, 0, depth),
+						                rows[rowOffset + rowSize - 1],
+						                word.length() + depth,
+						                Math.abs(word.length() - depth),
+						                getScanIndex(termNumber));
+			}
+
+			termNumber += this.termCounts[state];
+			for (int childTransition = this.firstTransitions[state + 1] - 1; childTransition >= this.firstTransitions[state]; --childTransition) {
+				if (pendingTransitionCount == pendingTransitions.length) {
+					pendingTransitions = Arrays.copyOf(pendingTransitions, pendingTransitionCount * 2);
+					pendingDepths = Arrays.copyOf(pendingDepths, pendingTransitionCount * 2);
+					pendingTermNumbers = Arrays.copyOf(pendingTermNumbers, pendingTransitionCount * 2);
+				}
+				termNumber -= this.termCounts[this.transitionTargets[childTransition]];
+				pendingTransitions[pendingTransitionCount] = childTransition;
+				pendingDepths[pendingTransitionCount] = depth + 1;
+				pendingTermNumbers[pendingTransitionCount++] = termNumber;
+			}
+		}
+	}
+
+	/**
+	 * @param word
+	 * @return true if the word is a term of the automaton
+	 */
+	public boolean contains(String word) {
+
+		return getTermNumber(word) != NOT_A_TERM;
+	}
+
+	/**
+	 * @param word
+	 * @return the position of the word among the terms in lexicographic order, or NOT_A_TERM if it is not a term
+	 */
+	public int getTermNumber(String word) {
+
+		if (word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		int state = ROOT_STATE, termNumber = 0, transition = 0;
+
+		for (int characterIndex = 0; characterIndex < word.length(); ++characterIndex) {
+
+			//Terms that end here or go through a smaller label come first
+			if (this.finalStates[state]) {
+				++termNumber;
+			}
+
+			for (transition = this.firstTransitions[state]; transition < this.firstTransitions[state + 1] && this.transitionLabels[transition] < word.charAt(characterIndex); ++transition) {
+				termNumber += this.termCounts[this.transitionTargets[transition]];
+			}
+
+			if (transition == this.firstTransitions[state + 1] || this.transitionLabels[transition] != word.charAt(characterIndex)) {
+				return NOT_A_TERM;
+			}
+
+			state = this.transitionTargets[transition];
+		}
+
+		return this.finalStates[state] ? termNumber : NOT_A_TERM;
+	}
+
+	/**
+	 * @param termNumber position among the terms in lexicographic order
+	 * @return the term
+	 */
+	public String getTerm(int termNumber) {
+
+		if (termNumber < 0 || termNumber >= size()) {
+			throw new IllegalArgumentException("Term number " + termNumber + " is not between 0 and " + (size() - 1) + ".");
+		}
+
+		StringBuilder term = new StringBuilder();
+		int state = ROOT_STATE, remaining = termNumber, transition = 0;
+
+		while (true) {
+
+			if (this.finalStates[state]) {
+				if (remaining == 0) {
+					return term.toString();
+				}
+				--remaining;
+			}
+
+			for (transition = this.firstTransitions[state]; remaining >= this.termCounts[this.transitionTargets[transition]]; ++transition) {
+				remaining -= this.termCounts[this.transitionTargets[transition]];
+			}
+
+			term.append(this.transitionLabels[transition]);
+			state = this.transitionTargets[transition];
+		}
+	}
+
+	/**
+	 * @param termNumber position among the terms in lexicographic order
+	 * @return the position of the term in the order the terms are scanned
+	 */
+	public int getScanIndex(int termNumber) {
+
+		if (termNumber < 0 || termNumber >= size()) {
+			throw new IllegalArgumentException("Term number " + termNumber + " is not between 0 and " + (size() - 1) + ".");
+		}
+
+		return this.scanIndexes == null ? termNumber : this.scanIndexes[termNumber];
+	}
+
+	/**
+	 * @return true if the terms are scanned in the order they were given rather than in lexicographic order
+	 */
+	public boolean isScanOrderKept() {
+		return this.scanIndexes != null;
+	}
+
+	/**
+	 * @return the terms in lexicographic order
+	 */
+	@Override
+	public Iterator<String> iterator() {
+
+		return iterator(0);
+	}
+
+	/**
+	 * Each term is reached from the one before it by moving along the automaton, rather than from the root
+	 *
+	 * @param firstTermNumber position among the terms in lexicographic order of the first term returned
+	 * @return the terms in lexicographic order from the given one
+	 */
+	public Iterator<String> iterator(int firstTermNumber) {
+
+		if (firstTermNumber < 0 || firstTermNumber > size()) {
+			throw new IllegalArgumentException("Term number " + firstTermNumber + " is not between 0 and " + size() + ".");
+		}
+
+		return new TermIterator(firstTermNumber);
+	}
+
+	/**
+	 * Walks the automaton depth first, keeping the transition taken at each depth of the path to the next term
+	 */
+	private final class TermIterator implements Iterator<String> {
+
+		private int[] pathTransitions;
+		private char[] prefix;
+		private int depth;
+		private int nextTermNumber;
+
+		/**
+		 * Put the path on the given term the same way as getTerm
+		 *
+		 * @param firstTermNumber
+		 */
+		TermIterator(int firstTermNumber) {
+
+			this.pathTransitions = new int[DictionaryAutomaton.this.maximumDepth];
+			this.prefix = new char[DictionaryAutomaton.this.maximumDepth];
+			this.depth = 0;
+			this.nextTermNumber = firstTermNumber;
+
+			if (firstTermNumber == size()) {
+				return;
+			}
+
+			int state = ROOT_STATE, remaining = firstTermNumber, transition = 0;
+			while (true) {
+
+				if (DictionaryAutomaton.this.finalStates[state]) {
+					if (remaining == 0) {
+						return;
+					}
+					--remaining;
+				}
+
+				for (transition = DictionaryAutomaton.this.firstTransitions[state]; remaining >= DictionaryAutomaton.this.termCounts[DictionaryAutomaton.this.transitionTargets[transition]]; ++transition) {
+					remaining -= DictionaryAutomaton.this.termCounts[DictionaryAutomaton.this.transitionTargets[transition]];
+				}
+
+				state = follow(transition);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.nextTermNumber < size();
+		}
+
+		@Override
+		public String next() {
+
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			String term = new String(this.prefix, 0, this.depth);
+			if (++this.nextTermNumber < size()) {
+				moveToNextTerm();
+			}
+
+			return term;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("The automaton cannot be changed.");
+		}
+
+		/**
+		 * The next term is the first one below the current state if it has transitions, otherwise the first one below
+		 * the next sibling transition of the deepest state on the path that has one
+		 */
+		private void moveToNextTerm() {
+
+			int state = this.depth == 0 ? ROOT_STATE : DictionaryAutomaton.this.transitionTargets[this.pathTransitions[this.depth - 1]];
+			int transition = 0, parentState = 0;
+
+			if (DictionaryAutomaton.this.firstTransitions[state] < DictionaryAutomaton.this.firstTransitions[state + 1]) {
+				state = follow(DictionaryAutomaton.this.firstTransitions[state]);
+			} else {
+				while (true) {
+					transition = this.pathTransitions[--this.depth];
+					parentState = this.depth == 0 ? ROOT_STATE : DictionaryAutomaton.this.transitionTargets[this.pathTransitions[this.depth - 1]];
+					if (transition + 1 < DictionaryAutomaton.this.firstTransitions[parentState + 1]) {
+						state = follow(transition + 1);
+						break;
+					}
+				}
+			}
+
+			//Every state leads to a term, and the first one is reached by always taking the smallest label
+			while (!DictionaryAutomaton.this.finalStates[state]) {
+				state = follow(DictionaryAutomaton.this.firstTransitions[state]);
+			}
+		}
+
+		/**
+		 * @param transition
+		 * @return the state the transition leads to, which is now the end of the path
+		 */
+		private int follow(int transition) {
+
+			this.pathTransitions[this.depth] = transition;
+			this.prefix[this.depth++] = DictionaryAutomaton.this.transitionLabels[transition];
+
+			return DictionaryAutomaton.this.transitionTargets[transition];
+		}
+	}
+
+	/**
+	 * @return the number of terms
+	 */
+	public int size() {
+		return this.termCounts[ROOT_STATE];
+	}
+
+	/**
+	 * @return the number of states, including the root
+	 */
+	public int getStateCount() {
+		return this.stateCount;
+	}
+
+	/**
+	 * @return the number of transitions
+	 */
+	public int getTransitionCount() {
+		return this.transitionLabels.length;
+	}
+
+	/**
+	 * @return the state the automaton starts from
+	 */
+	public int getRootState() {
+		return ROOT_STATE;
+	}
+
+	/**
+	 * @param state
+	 * @return true if a term ends at the state
+	 */
+	public boolean isFinalState(int state) {
+		return this.finalStates[state];
+	}
+
+	/**
+	 * @param state
+	 * @return the number of terms that can be reached from the state
+	 */
+	public int getTermCount(int state) {
+		return this.termCounts[state];
+	}
+
+	/**
+	 * @param state
+	 * @param label
+	 * @return the state reached from the state over the label, or NO_STATE if there is no such transition
+	 */
+	public int getNextState(int state, char label) {
+
+		int low = this.firstTransitions[state], high = this.firstTransitions[state + 1] - 1, middle = 0;
+
+		//The transitions of a state are sorted by label
+		while (low <= high) {
+			middle = (low + high) >>> 1;
+			if (this.transitionLabels[middle] < label) {
+				low = middle + 1;
+			} else if (this.transitionLabels[middle] > label) {
+				high = middle - 1;
+			} else {
+				return this.transitionTargets[middle];
+			}
+		}
+
+		return NO_STATE;
+	}
+
+	/**
+	 * @param state
+	 * @return the index of the first transition of the state
+	 */
+	public int getFirstTransition(int state) {
+		return this.firstTransitions[state];
+	}
+
+	/**
+	 * @param state
+	 * @return the index just after the last transition of the state
+	 */
+	public int getTransitionEnd(int state) {
+		return this.firstTransitions[state + 1];
+	}
+
+	/**
+	 * @param transition
+	 * @return the character on the transition
+	 */
+	public char getTransitionLabel(int transition) {
+		return this.transitionLabels[transition];
+	}
+
+	/**
+	 * @param transition
+	 * @return the state the transition leads to
+	 */
+	public int getTransitionTarget(int transition) {
+		return this.transitionTargets[transition];
+	}
+
+	/**
+	 * @return the length of the longest term
+	 */
+	public int getMaximumDepth() {
+		return this.maximumDepth;
+	}
+
+}
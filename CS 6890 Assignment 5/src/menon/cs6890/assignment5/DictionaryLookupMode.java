@@ -0,0 +1,47 @@
+package menon.cs6890.assignment5;
+
+/**
+ * The ways in which a spellchecker can find the nutrition terms to score
+ */
+public enum DictionaryLookupMode {
+	
+	/**
+	 * Every nutrition term in the dictionary is scored
+	 */
+	LINEAR_SCAN,
+	
+	/**
+	 * Nutrition terms are found through a BK-tree, which skips terms that the triangle inequality shows to be too 
+	 * far from the word. Only used when insertion and deletion both cost 1, as the edit distance is not a metric
+	 * otherwise. The linear scan is used instead for other costs.
+	 */
+	BK_TREE,
+	
+	/**
+	 * Only the nutrition terms that share a deletion variant with the word are scored (SymSpell). Every term within 
+	 * the maximum number of single character edits is found. Any other term costs at least one more than that many of 
+	 * the cheapest edit, counting the moves along the first row and column of the table that always cost 1, so the word
+	 * is not matched unless a term found costs less than that. If an edit is free, the whole dictionary is scanned.
+	 */
+	DELETION_INDEX,
+	
+	/**
+	 * The nutrition terms are scored in one traversal of a trie, so that terms sharing a prefix share the rows of
+	 * the table for that prefix. Branches that cannot beat the best match so far are skipped.
+	 */
+	TRIE,
+	
+	/**
+	 * The nutrition terms are scored in one traversal of a minimal acyclic automaton (DAWG), the same way as with the 
+	 * trie. The automaton also merges common suffixes and does not store the terms, so it takes much less memory.
+	 */
+	AUTOMATON,
+	
+	/**
+	 * A Levenshtein automaton accepting every string within the maximum edit cost of the word is walked together with 
+	 * the minimal acyclic automaton of the terms, so that branches further than the maximum edit cost are never followed. 
+	 * Words further than the maximum edit cost from every term are not matched, whatever the scoring mode.
+	 */
+	LEVENSHTEIN_AUTOMATON
+	
+}
@@ -0,0 +1,85 @@
+package menon.cs6890.assignment5;
+
+import java.util.Iterator;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork join task that scores a range of nutrition terms against one word. Ranges larger than the threshold are split
+ * in half and the halves are scored in parallel. The best match of the first half is offered before that of the 
+ * second half, so ties are broken in the same way as in a scan of the terms in order.
+ */
+public abstract class DictionaryScanTask extends RecursiveTask<BestMatchSelector> {
+	
+	private static final long serialVersionUID = 1L;
+	private static final int TERMS_PER_TASK = 256;
+	
+	protected Dictionary dictionary;
+	protected int firstTermIndex;
+	protected int lastTermIndex;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param dictionary
+	 * @param firstTermIndex scan index of the first term to score
+	 * @param lastTermIndex scan index after the last term to score
+	 */
+	protected DictionaryScanTask(Dictionary dictionary, int firstTermIndex, int lastTermIndex) {
+		
+		if (dictionary == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		this.dictionary = dictionary;
+		this.firstTermIndex = firstTermIndex;
+		this.lastTermIndex = lastTermIndex;
+	}
+	
+	/**
+	 * @return a best match selector that has been offered every nutrition term in the range
+	 */
+	@Override
+	protected BestMatchSelector compute() {
+		
+		if (this.lastTermIndex - this.firstTermIndex <= TERMS_PER_TASK) {
+			BestMatchSelector bestMatchSelector = createBestMatchSelector();
+			Iterator<String> nutritionTerms = this.dictionary.iterator(this.firstTermIndex);
+			for (int termIndex = this.firstTermIndex; termIndex < this.lastTermIndex; ++termIndex) {
+				scoreNutritionTerm(nutritionTerms.next(), bestMatchSelector);
+			}
+			return bestMatchSelector;
+		}
+		
+		//Score the second half on another thread while this thread scores the first half
+		int middleTermIndex = (this.firstTermIndex + this.lastTermIndex) >>> 1;
+		DictionaryScanTask firstHalf = createSubtask(this.firstTermIndex, middleTermIndex);
+		DictionaryScanTask secondHalf = createSubtask(middleTermIndex, this.lastTermIndex);
+		secondHalf.fork();
+		
+		BestMatchSelector bestMatchSelector = firstHalf.compute();
+		bestMatchSelector.merge(secondHalf.join());
+		
+		return bestMatchSelector;
+	}
+	
+	/**
+	 * @return an empty best match selector with the tie breaking rules of the spellchecker
+	 */
+	protected abstract BestMatchSelector createBestMatchSelector();
+	
+	/**
+	 * Score a nutrition term and offer it to the best match selector
+	 * 
+	 * @param nutritionTerm
+	 * @param bestMatchSelector
+	 */
+	protected abstract void scoreNutritionTerm(String nutritionTerm, BestMatchSelector bestMatchSelector);
+	
+	/**
+	 * @param firstTermIndex
+	 * @param lastTermIndex
+	 * @return a task of the same kind for part of the range
+	 */
+	protected abstract DictionaryScanTask createSubtask(int firstTermIndex, int lastTermIndex);
+
+}
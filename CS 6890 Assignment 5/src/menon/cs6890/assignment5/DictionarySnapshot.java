@@ -0,0 +1,356 @@
+package menon.cs6890.assignment5;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a dictionary together with the structures built from it, so that a spellchecker can start without
+ * reading the dictionary text file and rebuilding its BK-tree and trie. The snapshot is memory mapped when it is loaded
+ * and the node arrays are copied out of it in bulk.
+ *
+ * The file starts with a magic number and a version, followed by the terms in the order the spellcheckers scan them.
+ * Then come the BK-tree, with the costs it was built with, and the trie. Either may be missing. Nodes refer to terms by
+ * their position in the term list.
+ *
+ * Run main with the dictionary text file and the snapshot file to write a snapshot, optionally followed by the insertion,
+ * deletion and substitution costs of the BK-tree.
+ */
+public class DictionarySnapshot {
+
+	private static final int MAGIC_NUMBER = 0x53504453;
+	private static final int VERSION = 1;
+	private static final int NO_TERM = -1;
+	private static final int STRUCTURE_MISSING = 0;
+	private static final int STRUCTURE_PRESENT = 1;
+
+	private String[] nutritionTerms;
+	private BurkhardKellerTree burkhardKellerTree;
+	private int burkhardKellerTreeInsertionCost;
+	private int burkhardKellerTreeDeletionCost;
+	private int burkhardKellerTreeSubstitutionCost;
+	private DictionaryTrie dictionaryTrie;
+
+	/**
+	 * Constructor
+	 *
+	 * @param nutritionTerms in the order they are scanned
+	 * @param burkhardKellerTree null if there is none
+	 * @param insertionCost the BK-tree was built with
+	 * @param deletionCost the BK-tree was built with
+	 * @param substitutionCost the BK-tree was built with
+	 * @param dictionaryTrie null if there is none
+	 */
+	public DictionarySnapshot(String[] nutritionTerms, BurkhardKellerTree burkhardKellerTree, int insertionCost, int deletionCost, int substitutionCost, DictionaryTrie dictionaryTrie) {
+
+		if (nutritionTerms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (insertionCost < 0 || deletionCost < 0 || substitutionCost < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		this.nutritionTerms = nutritionTerms;
+		this.burkhardKellerTree = burkhardKellerTree;
+		this.burkhardKellerTreeInsertionCost = insertionCost;
+		this.burkhardKellerTreeDeletionCost = deletionCost;
+		this.burkhardKellerTreeSubstitutionCost = substitutionCost;
+		this.dictionaryTrie = dictionaryTrie;
+	}
+
+	/**
+	 * Writes a snapshot of a dictionary text file
+	 *
+	 * @param args dictionary text file, snapshot file and optionally the insertion, deletion and substitution costs of the BK-tree
+	 */
+	public static void main(String[] args) {
+
+		if (args.length != 2 && args.length != 5) {
+			System.err.println("Usage: DictionarySnapshot <dictionary text file> <snapshot file> [<insertion cost> <deletion cost> <substitution cost>]");
+			return;
+		}
+
+		int insertionCost = LEDSpellchecker.STANDARD_INSERTION_COST;
+		int deletionCost = LEDSpellchecker.STANDARD_DELETION_COST;
+		int substitutionCost = LEDSpellchecker.STANDARD_SUBSTITUTION_COST;
+		if (args.length == 5) {
+			insertionCost = Integer.parseInt(args[2]);
+			deletionCost = Integer.parseInt(args[3]);
+			substitutionCost = Integer.parseInt(args[4]);
+		}
+
+		Calendar start = Calendar.getInstance();
+
+		Dictionary dictionary = null;
+		try {
+			dictionary = Dictionary.load(args[0]);
+		} catch (IOException e) {
+			System.err.println("IOException thrown while reading file " + args[0] + ".");
+			e.printStackTrace();
+			return;
+		}
+
+		//The BK-tree is only of use when the edit distance is a metric
+		BurkhardKellerTree burkhardKellerTree = null;
+		if (insertionCost == 1 && deletionCost == 1) {
+			burkhardKellerTree = dictionary.getBurkhardKellerTree(insertionCost, deletionCost, substitutionCost);
+		}
+
+		DictionarySnapshot dictionarySnapshot = new DictionarySnapshot(dictionary.getScanOrder(), burkhardKellerTree, insertionCost, deletionCost, substitutionCost, dictionary.getDictionaryTrie());
+
+		try {
+			dictionarySnapshot.write(args[1]);
+		} catch (IOException e) {
+			System.err.println("IOException thrown while trying to write to file " + args[1]);
+			e.printStackTrace();
+			return;
+		}
+
+		Calendar end = Calendar.getInstance();
+		System.out.println("Snapshot of " + dictionary.size() + " terms took " + (end.getTimeInMillis() - start.getTimeInMillis()) + " milliseconds to write.");
+	}
+
+	/**
+	 * @param snapshotFilePath
+	 * @return the snapshot read from the file
+	 * @throws IOException if the file cannot be read or is not a snapshot of this version
+	 */
+	public static DictionarySnapshot load(String snapshotFilePath) throws IOException {
+
+		if (snapshotFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		RandomAccessFile snapshotFile = new RandomAccessFile(snapshotFilePath, "r");
+		try {
+			FileChannel snapshotFileChannel = snapshotFile.getChannel();
+			if (snapshotFileChannel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot file " + snapshotFilePath + " is too large to map.");
+			}
+
+			MappedByteBuffer snapshot = snapshotFileChannel.map(FileChannel.MapMode.READ_ONLY, 0, snapshotFileChannel.size());
+			if (snapshot.getInt() != MAGIC_NUMBER || snapshot.getInt() != VERSION) {
+				throw new IOException("File " + snapshotFilePath + " is not a dictionary snapshot of version " + VERSION + ".");
+			}
+
+			return readSnapshot(snapshot);
+
+		} catch (RuntimeException e) {
+			//A snapshot cut short runs past the end of the buffer
+			throw new IOException("Snapshot file " + snapshotFilePath + " is damaged.", e);
+		} finally {
+			snapshotFile.close();
+		}
+	}
+
+	/**
+	 * @param snapshotFilePath
+	 * @throws IOException
+	 */
+	public void write(String snapshotFilePath) throws IOException {
+
+		if (snapshotFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		Map<String, Integer> termIndices = new HashMap<String, Integer>();
+		for (int termIndex = 0; termIndex < this.nutritionTerms.length; ++termIndex) {
+			termIndices.put(this.nutritionTerms[termIndex], termIndex);
+		}
+
+		DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFilePath)));
+		try {
+			snapshot.writeInt(MAGIC_NUMBER);
+			snapshot.writeInt(VERSION);
+
+			snapshot.writeInt(this.nutritionTerms.length);
+			for (String nutritionTerm : this.nutritionTerms) {
+				byte[] termBytes = nutritionTerm.getBytes(StandardCharsets.UTF_8);
+				snapshot.writeInt(termBytes.length);
+				snapshot.write(termBytes);
+			}
+
+			if (this.burkhardKellerTree == null) {
+				snapshot.writeInt(STRUCTURE_MISSING);
+			} else {
+				int nodeCount = this.burkhardKellerTree.size();
+				snapshot.writeInt(STRUCTURE_PRESENT);
+				snapshot.writeInt(this.burkhardKellerTreeInsertionCost);
+				snapshot.writeInt(this.burkhardKellerTreeDeletionCost);
+				snapshot.writeInt(this.burkhardKellerTreeSubstitutionCost);
+				snapshot.writeInt(nodeCount);
+				writeTermIndices(snapshot, this.burkhardKellerTree.getTerms(), nodeCount, termIndices);
+				writeInts(snapshot, this.burkhardKellerTree.getFirstChildren(), nodeCount);
+				writeInts(snapshot, this.burkhardKellerTree.getNextSiblings(), nodeCount);
+				writeInts(snapshot, this.burkhardKellerTree.getDistancesFromParent(), nodeCount);
+			}
+
+			if (this.dictionaryTrie == null) {
+				snapshot.writeInt(STRUCTURE_MISSING);
+			} else {
+				int nodeCount = this.dictionaryTrie.getNodeCount();
+				snapshot.writeInt(STRUCTURE_PRESENT);
+				snapshot.writeInt(nodeCount);
+				snapshot.writeInt(this.dictionaryTrie.getMaximumDepth());
+				char[] labels = this.dictionaryTrie.getLabels();
+				for (int node = 0; node < nodeCount; ++node) {
+					snapshot.writeChar(labels[node]);
+				}
+				writeInts(snapshot, this.dictionaryTrie.getFirstChildren(), nodeCount);
+				writeInts(snapshot, this.dictionaryTrie.getNextSiblings(), nodeCount);
+				writeTermIndices(snapshot, this.dictionaryTrie.getTerms(), nodeCount, termIndices);
+			}
+		} finally {
+			snapshot.close();
+		}
+	}
+
+	/**
+	 * @return the terms in the order they are scanned
+	 */
+	public String[] getNutritionTerms() {
+		return this.nutritionTerms;
+	}
+
+	/**
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @return the BK-tree if it was built with the same costs, otherwise null
+	 */
+	public BurkhardKellerTree getBurkhardKellerTree(int insertionCost, int deletionCost, int substitutionCost) {
+
+		if (insertionCost == this.burkhardKellerTreeInsertionCost &&
+		    deletionCost == this.burkhardKellerTreeDeletionCost &&
+		    substitutionCost == this.burkhardKellerTreeSubstitutionCost) {
+			return this.burkhardKellerTree;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the trie or null if there is none
+	 */
+	public DictionaryTrie getDictionaryTrie() {
+		return this.dictionaryTrie;
+	}
+
+	/**
+	 * @param snapshot positioned after the version
+	 * @return the snapshot
+	 */
+	private static DictionarySnapshot readSnapshot(MappedByteBuffer snapshot) {
+
+		String[] nutritionTerms = new String[snapshot.getInt()];
+		byte[] termBytes = new byte[0];
+		int termLength = 0;
+		for (int termIndex = 0; termIndex < nutritionTerms.length; ++termIndex) {
+			termLength = snapshot.getInt();
+			if (termBytes.length < termLength) {
+				termBytes = new byte[termLength];
+			}
+			snapshot.get(termBytes, 0, termLength);
+			nutritionTerms[termIndex] = new String(termBytes, 0, termLength, StandardCharsets.UTF_8);
+		}
+
+		BurkhardKellerTree burkhardKellerTree = null;
+		int insertionCost = 0, deletionCost = 0, substitutionCost = 0, nodeCount = 0;
+		if (snapshot.getInt() == STRUCTURE_PRESENT) {
+			insertionCost = snapshot.getInt();
+			deletionCost = snapshot.getInt();
+			substitutionCost = snapshot.getInt();
+			nodeCount = snapshot.getInt();
+			int[] termIndices = readInts(snapshot, nodeCount);
+			int[] firstChildren = readInts(snapshot, nodeCount);
+			int[] nextSiblings = readInts(snapshot, nodeCount);
+			int[] distancesFromParent = readInts(snapshot, nodeCount);
+			burkhardKellerTree = new BurkhardKellerTree(getTerms(termIndices, nutritionTerms), firstChildren, nextSiblings, distancesFromParent, termIndices, nodeCount);
+		}
+
+		DictionaryTrie dictionaryTrie = null;
+		if (snapshot.getInt() == STRUCTURE_PRESENT) {
+			nodeCount = snapshot.getInt();
+			int maximumDepth = snapshot.getInt();
+			char[] labels = new char[nodeCount];
+			snapshot.asCharBuffer().get(labels);
+			snapshot.position(snapshot.position() + 2 * nodeCount);
+			int[] firstChildren = readInts(snapshot, nodeCount);
+			int[] nextSiblings = readInts(snapshot, nodeCount);
+			int[] termIndices = readInts(snapshot, nodeCount);
+			dictionaryTrie = new DictionaryTrie(labels, firstChildren, nextSiblings, getTerms(termIndices, nutritionTerms), termIndices, nodeCount, maximumDepth);
+		}
+
+		return new DictionarySnapshot(nutritionTerms, burkhardKellerTree, insertionCost, deletionCost, substitutionCost, dictionaryTrie);
+	}
+
+	/**
+	 * @param snapshot
+	 * @param count
+	 * @return the integers read in bulk from the snapshot
+	 */
+	private static int[] readInts(MappedByteBuffer snapshot, int count) {
+
+		int[] values = new int[count];
+		snapshot.asIntBuffer().get(values);
+		snapshot.position(snapshot.position() + 4 * count);
+
+		return values;
+	}
+
+	/**
+	 * @param termIndices read from the snapshot, which are also the scan indexes of the terms
+	 * @param nutritionTerms
+	 * @return the terms the indices refer to
+	 */
+	private static String[] getTerms(int[] termIndices, String[] nutritionTerms) {
+
+		String[] terms = new String[termIndices.length];
+
+		for (int node = 0; node < termIndices.length; ++node) {
+			terms[node] = termIndices[node] == NO_TERM ? null : nutritionTerms[termIndices[node]];
+		}
+
+		return terms;
+	}
+
+	/**
+	 * @param snapshot
+	 * @param values
+	 * @param count
+	 * @throws IOException
+	 */
+	private static void writeInts(DataOutputStream snapshot, int[] values, int count) throws IOException {
+
+		for (int index = 0; index < count; ++index) {
+			snapshot.writeInt(values[index]);
+		}
+	}
+
+	/**
+	 * @param snapshot
+	 * @param terms
+	 * @param count
+	 * @param termIndices
+	 * @throws IOException
+	 */
+	private static void writeTermIndices(DataOutputStream snapshot, String[] terms, int count, Map<String, Integer> termIndices) throws IOException {
+
+		Integer termIndex = null;
+
+		for (int node = 0; node < count; ++node) {
+			termIndex = terms[node] == null ? null : termIndices.get(terms[node]);
+			snapshot.writeInt(termIndex == null ? NO_TERM : termIndex.intValue());
+		}
+	}
+
+}
@@ -0,0 +1,295 @@
+package menon.cs6890.assignment5;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Trie of dictionary terms that scores all terms against a word in one depth first traversal. Each node stands 
+ * for a term prefix, and the row of the Levenshtein Edit Distance table for that prefix is computed once from its 
+ * parent's row, so terms that share a prefix share the work of scoring it.
+ * 
+ * The nodes are held in flat arrays. Each node has the character on the edge from its parent, the index of its first 
+ * child and of its next sibling, and the term that ends at the node, if any. A node with a term also has the position
+ * of the term in the order the terms were given, which is the order the dictionary is scanned, and every node has the
+ * lowest such position below it, so that equally good terms are told apart the same way as in a scan.
+ */
+public class DictionaryTrie {
+	
+	private static final int NO_NODE = -1;
+	private static final int ROOT_NODE = 0;
+	private static final int NO_SCAN_INDEX = -1;
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private char[] labels;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private String[] terms;
+	private int[] scanIndexes;
+	private int[] firstScanIndexes;
+	private int nodeCount;
+	private int maximumDepth;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param terms in the order the dictionary is scanned
+	 */
+	public DictionaryTrie(Collection<String> terms) {
+		
+		if (terms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		this.labels = new char[INITIAL_CAPACITY];
+		this.firstChildren = new int[INITIAL_CAPACITY];
+		this.nextSiblings = new int[INITIAL_CAPACITY];
+		this.terms = new String[INITIAL_CAPACITY];
+		this.scanIndexes = new int[INITIAL_CAPACITY];
+		this.nodeCount = 0;
+		this.maximumDepth = 0;
+		
+		addNode((char) 0);
+		
+		int scanIndex = 0;
+		for (String term : terms) {
+			insert(term, scanIndex++);
+		}
+		
+		computeFirstScanIndexes();
+	}
+	
+	/**
+	 * Constructor that takes the node arrays of a trie built earlier, such as one read from a dictionary snapshot
+	 * 
+	 * @param labels
+	 * @param firstChildren
+	 * @param nextSiblings
+	 * @param terms
+	 * @param scanIndexes of the terms, ignored for nodes without a term
+	 * @param nodeCount
+	 * @param maximumDepth length of the longest term
+	 */
+	DictionaryTrie(char[] labels, int[] firstChildren, int[] nextSiblings, String[] terms, int[] scanIndexes, int nodeCount, int maximumDepth) {
+		
+		if (labels == null || firstChildren == null || nextSiblings == null || terms == null || scanIndexes == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (nodeCount < 1 || labels.length < nodeCount || firstChildren.length < nodeCount || nextSiblings.length < nodeCount || terms.length < nodeCount || scanIndexes.length < nodeCount) {
+			throw new IllegalArgumentException("Node arrays are shorter than the node count.");
+		}
+		
+		this.labels = labels;
+		this.firstChildren = firstChildren;
+		this.nextSiblings = nextSiblings;
+		this.terms = terms;
+		this.scanIndexes = scanIndexes;
+		this.nodeCount = nodeCount;
+		this.maximumDepth = maximumDepth;
+		
+		computeFirstScanIndexes();
+	}
+	
+	/**
+	 * Follow the term from the root, adding nodes for the characters that are not in the trie yet
+	 * 
+	 * @param term
+	 * @param scanIndex
+	 */
+	private void insert(String term, int scanIndex) {
+		
+		int currentNode = ROOT_NODE, child = NO_NODE;
+		char character;
+		
+		for (int characterIndex = 0; characterIndex < term.length(); ++characterIndex) {
+			
+			character = term.charAt(characterIndex);
+			
+			child = this.firstChildren[currentNode];
+			while (child != NO_NODE && this.labels[child] != character) {
+				child = this.nextSiblings[child];
+			}
+			
+			if (child == NO_NODE) {
+				child = addNode(character);
+				this.nextSiblings[child] = this.firstChildren[currentNode];
+				this.firstChildren[currentNode] = child;
+			}
+			
+			currentNode = child;
+		}
+		
+		//A term that is already in the trie keeps its first scan index
+		if (this.terms[currentNode] == null) {
+			this.terms[currentNode] = term;
+			this.scanIndexes[currentNode] = scanIndex;
+		}
+		this.maximumDepth = Math.max(this.maximumDepth, term.length());
+	}
+	
+	/**
+	 * @param label
+	 * @return the index of the new node
+	 */
+	private int addNode(char label) {
+		
+		if (this.nodeCount == this.labels.length) {
+			int capacity = this.labels.length * 2;
+			this.labels = Arrays.copyOf(this.labels, capacity);
+			this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+			this.nextSiblings = Arrays.copyOf(this.nextSiblings, capacity);
+			this.terms = Arrays.copyOf(this.terms, capacity);
+			this.scanIndexes = Arrays.copyOf(this.scanIndexes, capacity);
+		}
+		
+		int node = this.nodeCount++;
+		this.labels[node] = label;
+		this.firstChildren[node] = NO_NODE;
+		this.nextSiblings[node] = NO_NODE;
+		this.terms[node] = null;
+		this.scanIndexes[node] = NO_SCAN_INDEX;
+		
+		return node;
+	}
+	
+	/**
+	 * Work out the lowest scan index below each node. A child is always added after its parent, so going through the
+	 * nodes backwards reaches every child before its parent.
+	 */
+	private void computeFirstScanIndexes() {
+		
+		this.firstScanIndexes = new int[this.nodeCount];
+		
+		for (int node = this.nodeCount - 1; node >= 0; --node) {
+			int firstScanIndex = this.terms[node] == null ? Integer.MAX_VALUE : this.scanIndexes[node];
+			for (int child = this.firstChildren[node]; child != NO_NODE; child = this.nextSiblings[child]) {
+				firstScanIndex = Math.min(firstScanIndex, this.firstScanIndexes[child]);
+			}
+			this.firstScanIndexes[node] = firstScanIndex;
+		}
+	}
+	
+	/**
+	 * Offer every term that costs less than both the cost limit and the best match so far to the best match selector. 
+	 * The terms are the targets and the word is the source of the Levenshtein Edit Distance table. A branch is skipped 
+	 * as soon as no element of its row is below the limit, since costs never decrease further down the trie. A branch 
+	 * whose row is at best as low as the best match so far is only followed if it holds a term earlier in scan order.
+	 * 
+	 * @param word
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @param costLimit
+	 * @param bestMatchSelector
+	 */
+	public void findClosestTerms(String word, int insertionCost, int deletionCost, int substitutionCost, int costLimit, BestMatchSelector bestMatchSelector) {
+		
+		if (word == null || bestMatchSelector == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		//One row per trie depth, each as long as the word plus the null character
+		int rowSize = word.length() + 1;
+		int[] rows = new int[(this.maximumDepth + 1) * rowSize];
+		
+		//The row of the root is the cost of moving along the word from the null character
+		for (int sourceStringIndex = 0; sourceStringIndex < rowSize; ++sourceStringIndex) {
+			rows[sourceStringIndex] = sourceStringIndex;
+		}
+		
+		int[] pendingNodes = new int[INITIAL_CAPACITY], pendingDepths = new int[INITIAL_CAPACITY];
+		int pendingNodeCount = 0, currentNode = ROOT_NODE, depth = 0, child = NO_NODE, lowestMatchingCost = 0;
+		int rowOffset = 0, previousRowOffset = 0, lowestCostInRow = 0, distanceFromDiagonal = 0;
+		char label;
+		
+		pendingNodes[pendingNodeCount] = ROOT_NODE;
+		pendingDepths[pendingNodeCount++] = 0;
+		
+		while (pendingNodeCount > 0) {
+			
+			currentNode = pendingNodes[--pendingNodeCount];
+			depth = pendingDepths[pendingNodeCount];
+			rowOffset = depth * rowSize;
+			
+			if (depth > 0) {
+				
+				//Compute the row of this node from the row of its parent, which is the last row computed one level up
+				label = this.labels[currentNode];
+				previousRowOffset = rowOffset - rowSize;
+				rows[rowOffset] = depth;
+				lowestCostInRow = depth;
+				
+				for (int sourceStringIndex = 1; sourceStringIndex < rowSize; ++sourceStringIndex) {
+					
+					if (label == word.charAt(sourceStringIndex - 1)) {
+						distanceFromDiagonal = rows[previousRowOffset + sourceStringIndex - 1];
+					} else {
+						distanceFromDiagonal = rows[previousRowOffset + sourceStringIndex - 1] + substitutionCost;
+					}
+					
+					rows[rowOffset + sourceStringIndex] = Math.min(Math.min(rows[previousRowOffset + sourceStringIndex] + insertionCost, 
+							                                                rows[rowOffset + sourceStringIndex - 1] + deletionCost), 
+							                                       distanceFromDiagonal);
+					lowestCostInRow = Math.min(lowestCostInRow, rows[rowOffset + sourceStringIndex]);
+				}
+				
+				//Only a term that costs less than both the limit and the best match so far, or as much as the best match but earlier in scan order, is of interest
+				lowestMatchingCost = bestMatchSelector.getLowestMatchingCost();
+				if (lowestCostInRow >= costLimit || lowestCostInRow > lowestMatchingCost ||
+				    (lowestCostInRow == lowestMatchingCost && this.firstScanIndexes[currentNode] > bestMatchSelector.getBestScanIndex())) {
+					continue;
+				}
+				
+				//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+				if (this.terms[currentNode] != null && rows[rowOffset + rowSize - 1] < costLimit) {
+					bestMatchSelector.offer(this.terms[currentNode], 
+							                rows[rowOffset + rowSize - 1], 
+							                word.length() + depth, 
+							                Math.abs(word.length() - depth), 
+							                this.scanIndexes[currentNode]);
+				}
+			}
+			
+			for (child = this.firstChildren[currentNode]; child != NO_NODE; child = this.nextSiblings[child]) {
+				if (pendingNodeCount == pendingNodes.length) {
+					pendingNodes = Arrays.copyOf(pendingNodes, pendingNodeCount * 2);
+					pendingDepths = Arrays.copyOf(pendingDepths, pendingNodeCount * 2);
+				}
+				pendingNodes[pendingNodeCount] = child;
+				pendingDepths[pendingNodeCount++] = depth + 1;
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of nodes in the trie, including the root
+	 */
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	char[] getLabels() {
+		return this.labels;
+	}
+	
+	int[] getFirstChildren() {
+		return this.firstChildren;
+	}
+	
+	int[] getNextSiblings() {
+		return this.nextSiblings;
+	}
+	
+	String[] getTerms() {
+		return this.terms;
+	}
+	
+	int[] getScanIndexes() {
+		return this.scanIndexes;
+	}
+	
+	int getMaximumDepth() {
+		return this.maximumDepth;
+	}
+
+}
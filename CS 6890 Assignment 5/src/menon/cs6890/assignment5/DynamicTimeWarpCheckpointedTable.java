@@ -0,0 +1,69 @@
+package menon.cs6890.assignment5;
+
+/**
+ * DTW table that only keeps some of its rows, for strings too long for a full table
+ */
+public class DynamicTimeWarpCheckpointedTable extends CheckpointedBackTraceTable {
+
+	private String target;
+	private String source;
+
+	/**
+	 * Constructor takes the target and source strings, neither of which can be empty
+	 *
+	 * @param target
+	 * @param source
+	 */
+	public DynamicTimeWarpCheckpointedTable(String target, String source) {
+
+		super(getLength(source), getLength(target));
+
+		this.target = target;
+		this.source = source;
+	}
+
+	/**
+	 * Find the cost of warping the first character in the source to the target
+	 */
+	@Override
+	protected void computeFirstRow(int[] costs, int offset) {
+
+		char firstSourceCharacter = this.source.charAt(0);
+		for (int targetStringIndex = 0; targetStringIndex < this.target.length(); ++targetStringIndex) {
+			costs[offset + targetStringIndex] = (targetStringIndex == 0 ? 0 : costs[offset + targetStringIndex - 1]) + (this.target.charAt(targetStringIndex) == firstSourceCharacter ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Fill in a row the same way as the full table
+	 */
+	@Override
+	protected void computeNextRow(int row, int[] costs, int previousOffset, int offset) {
+
+		char sourceCharacter = this.source.charAt(row);
+		int backTraceCost = 0;
+
+		costs[offset] = costs[previousOffset] + (sourceCharacter == this.target.charAt(0) ? 0 : 1);
+		for (int targetStringIndex = 1; targetStringIndex < this.target.length(); ++targetStringIndex) {
+
+			backTraceCost = Math.min(Math.min(costs[previousOffset + targetStringIndex], costs[offset + targetStringIndex - 1]), costs[previousOffset + targetStringIndex - 1]);
+
+			//The characters are compared once, as a mismatch adds the same cost whichever neighbor is moved from
+			costs[offset + targetStringIndex] = sourceCharacter == this.target.charAt(targetStringIndex) ? backTraceCost : backTraceCost + 1;
+		}
+	}
+
+	/**
+	 * @param string
+	 * @return the length of the string
+	 */
+	private static int getLength(String string) {
+
+		if (string == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		return string.length();
+	}
+
+}
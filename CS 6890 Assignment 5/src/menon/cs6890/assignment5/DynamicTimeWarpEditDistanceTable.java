@@ -8,256 +8,223 @@ import java.util.List;
  * Stores the DTW table elements that can be accessed
  * through row and column coordinates
  */
-public class DynamicTimeWarpEditDistanceTable {
+public class DynamicTimeWarpEditDistanceTable extends BackTraceTable {
 	
+	private int[] alignmentCosts;
+	private byte[] backTraceDirections;
 	private ArrayList<TableElement> table;
 	private String target;
 	private String source;
 	
 	/**
-	 * Constructor takes the target and source strings
+	 * Constructor takes the target and source strings. The table is held in flat primitive arrays, one alignment cost
+	 * and one back trace direction code per cell. Table element objects are only created if the table view is requested.
 	 * 
 	 * @param target
 	 * @param source
 	 */
 	public DynamicTimeWarpEditDistanceTable(String target, String source) {
-				
+		
+		this.alignmentCosts = new int[0];
+		this.backTraceDirections = new byte[0];
+		reset(target, source);
+	}
+	
+	/**
+	 * Make the table ready for another pair of strings. The arrays are only replaced if they are too small, so a table
+	 * kept by a thread does not allocate anything for strings no longer than the ones it has already seen.
+	 * 
+	 * @param target
+	 * @param source
+	 */
+	void reset(String target, String source) {
+		
 		if (target == null || source == null) {
 			throw new IllegalArgumentException("Null parameters not allowed.");
 		}
-	
+		
 		this.target = target;
 		this.source = source;
 		
-		this.table = new ArrayList<TableElement>(this.target.length() * this.source.length());
-		for (int sourceStringIndex = 0; sourceStringIndex < this.source.length(); ++sourceStringIndex) {
-			for (int targetStringIndex = 0; targetStringIndex < this.target.length(); ++targetStringIndex) {
-				this.table.add(new TableElement(null, null, null, 0, sourceStringIndex, targetStringIndex));
-			}
+		int tableSize = this.target.length() * this.source.length();
+		if (this.alignmentCosts.length < tableSize) {
+			this.alignmentCosts = new int[tableSize];
+			this.backTraceDirections = new byte[tableSize];
 		}
+		
+		//Any previously built table view is now stale
+		this.table = null;
 	}
 	
 	/**
 	 * Convert the source string to the target string and update the DTW table
 	 */
+	@Override
 	public void convertSourceToTarget() {
 		
+		int[] alignmentCosts = this.alignmentCosts;
+		byte[] backTraceDirections = this.backTraceDirections;
+		int targetSize = this.target.length(), sourceSize = this.source.length();
+		
+		if (targetSize == 0 || sourceSize == 0) {
+			return;
+		}
+		
 		//Find the cost of warping the source to the first character in the target.
-		TableElement currentTableElement = null, previousElement = null;
-		for (int sourceStringIndex = 0; sourceStringIndex < this.source.length(); ++sourceStringIndex) {
-			currentTableElement = getElement(0, sourceStringIndex);
-			assert currentTableElement != null;
-			if (this.source.charAt(sourceStringIndex) == this.target.charAt(0)) {
-				if (previousElement == null) {
-					currentTableElement.setAlignmentCost(0);
-				} else {
-					currentTableElement.setAlignmentCost(previousElement.getAlignmentCost());
-				}
-			} else {
-				if (previousElement == null) {
-					currentTableElement.setAlignmentCost(1);
-				} else {
-					currentTableElement.setAlignmentCost(previousElement.getAlignmentCost() + 1);
-				}
-			}
-			currentTableElement.setMinimumDistanceFromSameSource(previousElement);
-			previousElement = currentTableElement;
-			setElement(0, sourceStringIndex, currentTableElement);
+		char firstTargetCharacter = this.target.charAt(0);
+		for (int sourceStringIndex = 0, offset = 0; sourceStringIndex < sourceSize; ++sourceStringIndex, offset += targetSize) {
+			alignmentCosts[offset] = (sourceStringIndex == 0 ? 0 : alignmentCosts[offset - targetSize]) + (this.source.charAt(sourceStringIndex) == firstTargetCharacter ? 0 : 1);
+			backTraceDirections[offset] = sourceStringIndex == 0 ? BACK_TRACE_NONE : BACK_TRACE_FROM_SAME_SOURCE;
 		}
 		
 		//Find the cost of warping the first character in the source to the target.
-		previousElement = null;
-		for (int targetStringIndex = 0; targetStringIndex < this.target.length(); ++targetStringIndex) {
-			currentTableElement = getElement(targetStringIndex, 0);
-			assert currentTableElement != null;
-			if (this.target.charAt(targetStringIndex) == this.source.charAt(0)) {
-				if (previousElement == null) {
-					currentTableElement.setAlignmentCost(0);
-				} else {
-					currentTableElement.setAlignmentCost(previousElement.getAlignmentCost());
-				}
-			} else {
-				if (previousElement == null) {
-					currentTableElement.setAlignmentCost(1);
-				} else {
-					currentTableElement.setAlignmentCost(previousElement.getAlignmentCost() + 1);
-				}
-			}
-			currentTableElement.setMinimumDistanceFromSameTarget(previousElement);
-			previousElement = currentTableElement;
-			setElement(targetStringIndex, 0, currentTableElement);
-		}		
+		char firstSourceCharacter = this.source.charAt(0);
+		for (int targetStringIndex = 1; targetStringIndex < targetSize; ++targetStringIndex) {
+			alignmentCosts[targetStringIndex] = alignmentCosts[targetStringIndex - 1] + (this.target.charAt(targetStringIndex) == firstSourceCharacter ? 0 : 1);
+			backTraceDirections[targetStringIndex] = BACK_TRACE_FROM_SAME_TARGET;
+		}
 		
-		int distanceFromPreviousInSource = 0, distanceFromPreviousInTarget = 0, distanceFromPreviousInSourceAndTarget = 0;
-		TableElement previousInSourceElement = null, previousInTargetElement = null, previousInSourceAndTargetElement = null;
+		int previousInSourceCost = 0, previousInTargetCost = 0, previousInSourceAndTargetCost = 0, backTraceCost = 0, offset = 0;
+		byte backTraceDirection = BACK_TRACE_NONE;
+		char sourceCharacter;
 		
 		//Loop through the elements in the table
-		for (int sourceStringIndex = 1; sourceStringIndex < this.source.length(); ++sourceStringIndex) {
-			for (int targetStringIndex = 1; targetStringIndex < this.target.length(); ++targetStringIndex) {
+		for (int sourceStringIndex = 1; sourceStringIndex < sourceSize; ++sourceStringIndex) {
+			
+			sourceCharacter = this.source.charAt(sourceStringIndex);
+			offset = sourceStringIndex * targetSize;
+			
+			for (int targetStringIndex = 1; targetStringIndex < targetSize; ++targetStringIndex) {
 				
-				currentTableElement = getElement(targetStringIndex, sourceStringIndex);
-				assert currentTableElement != null;
+				++offset;
 				
-				//Get distance from previous element in source string
-				previousInSourceElement = getNeighborAboveOnPreviousRow(targetStringIndex, sourceStringIndex);
-				assert previousInSourceElement != null;
-				if (this.source.charAt(sourceStringIndex) == this.target.charAt(targetStringIndex)) {
-					distanceFromPreviousInSource = previousInSourceElement.getAlignmentCost();
-				} else {
-					distanceFromPreviousInSource = previousInSourceElement.getAlignmentCost() + 1;
-				}
+				previousInSourceCost = alignmentCosts[offset - targetSize];
+				previousInTargetCost = alignmentCosts[offset - 1];
+				previousInSourceAndTargetCost = alignmentCosts[offset - targetSize - 1];
 				
-				//Get distance from previous element in target string 
-				previousInTargetElement = getPreviousNeighborOnSameRow(targetStringIndex, sourceStringIndex);
-				assert previousInTargetElement != null;
-				if (this.source.charAt(sourceStringIndex) == this.target.charAt(targetStringIndex)) {
-					distanceFromPreviousInTarget = previousInTargetElement.getAlignmentCost();
-				} else {
-					distanceFromPreviousInTarget = previousInTargetElement.getAlignmentCost() + 1;
+				//The back trace is the neighbor with the least cost, preferring the same source, then the same target and then the diagonal
+				backTraceDirection = BACK_TRACE_FROM_SAME_SOURCE;
+				backTraceCost = previousInSourceCost;
+				if (previousInTargetCost < backTraceCost) {
+					backTraceDirection = BACK_TRACE_FROM_SAME_TARGET;
+					backTraceCost = previousInTargetCost;
 				}
-				//Get distance from previous elements in source and target strings 
-				previousInSourceAndTargetElement = getDiagonalNeighborOnPreviousRow(targetStringIndex, sourceStringIndex);
-				assert previousInSourceAndTargetElement != null;
-				if (this.source.charAt(sourceStringIndex) == this.target.charAt(targetStringIndex)) {
-					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetElement.getAlignmentCost();
-				} else {
-
-					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetElement.getAlignmentCost() + 1;
+				if (previousInSourceAndTargetCost < backTraceCost) {
+					backTraceDirection = BACK_TRACE_FROM_DIAGONAL;
+					backTraceCost = previousInSourceAndTargetCost;
 				}
 				
-				currentTableElement.setAlignmentCost(Math.min(Math.min(distanceFromPreviousInTarget, distanceFromPreviousInSource), distanceFromPreviousInSourceAndTarget));
-				currentTableElement.setMinimumDistanceFromSameSource(previousInSourceElement);
-				currentTableElement.setMinimumDistanceFromSameTarget(previousInTargetElement);
-				currentTableElement.setMinimumDistanceFromDiagonal(previousInSourceAndTargetElement);
-				
+				//The characters are compared once, as a mismatch adds the same cost whichever neighbor is moved from
+				alignmentCosts[offset] = sourceCharacter == this.target.charAt(targetStringIndex) ? backTraceCost : backTraceCost + 1;
+				backTraceDirections[offset] = backTraceDirection;
+			
 			}
 		}
-		
+	
 	}
 	
 	/**
-	 * Get element by column and row number
+	 * Get the alignment cost by column and row number
 	 * 
 	 * @param column
 	 * @param row
-	 * @return a table element
+	 * @return the alignment cost
 	 */
-	TableElement getElement(int column, int row) {
+	@Override
+	int getAlignmentCost(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
-			return null;
+			throw new IllegalArgumentException("Invalid table coordinates.");
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		TableElement element = this.table.get(currentElementOffset);
-
-		return element;
-		
-	}
+		return this.alignmentCosts[getTableOffset(column, row)];
 	
-	/**
-	 * Put an element into the specified row and column
-	 * 
-	 * @param column
-	 * @param row
-	 * @param element
-	 * @return true if the element is inserted
-	 */
-	private boolean setElement(int column, int row, TableElement element) {
-		
-		//Check if valid coordinate values have been passed in
-		if (!isValidCoordinate(column, row)) {
-			return false;
-		}
-		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		this.table.set(currentElementOffset, element);
-		
-		return true;
 	}
-
+	
 	/**
-	 * Get the previous neighbor on the same row
+	 * Get the direction of the back trace element by column and row number
 	 * 
 	 * @param column
 	 * @param row
-	 * @return a table element
+	 * @return one of the back trace direction codes
 	 */
-	private TableElement getPreviousNeighborOnSameRow(int column, int row) {
+	@Override
+	byte getBackTraceDirection(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
-			return null;
-		}
-
-		//Check if current point is on the border
-		if (column == 0) {
-			return null;
+			throw new IllegalArgumentException("Invalid table coordinates.");
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		TableElement neighbor = this.table.get(currentElementOffset - 1);
-
-		return neighbor;
-		
+		return this.backTraceDirections[getTableOffset(column, row)];
+	
 	}
 	
 	/**
-	 * Get the neighbor above on the previous row 
+	 * Get element by column and row number from the table view
 	 * 
 	 * @param column
 	 * @param row
 	 * @return a table element
 	 */
-	private TableElement getNeighborAboveOnPreviousRow(int column, int row) {
+	TableElement getElement(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
 			return null;
 		}
 		
-		//Check if current point is on the border
-		if (row == 0) {
-			return null;
-		}
-		
 		int currentElementOffset = getTableOffset(column, row);
 		
-		TableElement neighbor = this.table.get(currentElementOffset - this.target.length());
-
-		return neighbor;		
-
+		TableElement element = getElementTable().get(currentElementOffset);
+		
+		return element;
+	
 	}
 	
 	/**
-	 * Get the diagonal neighbor or previous row
+	 * Build the table of linked elements from the primitive arrays. This is only meant for debugging and inspection as it
+	 * creates one object per cell.
 	 * 
-	 * @param column
-	 * @param row
-	 * @return a table element
+	 * @return the table elements
 	 */
-	private TableElement getDiagonalNeighborOnPreviousRow(int column, int row) {
+	private ArrayList<TableElement> getElementTable() {
 		
-		//Check if valid values have been passed in
-		if (!isValidCoordinate(column, row)) {
-			return null;
+		if (this.table != null) {
+			return this.table;
 		}
 		
-		//Check if current point is on the border
-		if (column == 0 || row == 0) {
-			return null;
+		int targetSize = this.target.length(), sourceSize = this.source.length();
+		ArrayList<TableElement> elementTable = new ArrayList<TableElement>(targetSize * sourceSize);
+		for (int sourceStringIndex = 0; sourceStringIndex < sourceSize; ++sourceStringIndex) {
+			for (int targetStringIndex = 0; targetStringIndex < targetSize; ++targetStringIndex) {
+				elementTable.add(new TableElement(null, null, null, this.alignmentCosts[getTableOffset(targetStringIndex, sourceStringIndex)], sourceStringIndex, targetStringIndex));
+			}
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		TableElement neighbor = table.get(currentElementOffset - this.target.length() - 1);
+		//Link each element to its neighbors the same way the back trace directions were computed
+		TableElement element = null;
+		int offset = 0;
+		for (int sourceStringIndex = 0; sourceStringIndex < sourceSize; ++sourceStringIndex) {
+			for (int targetStringIndex = 0; targetStringIndex < targetSize; ++targetStringIndex) {
+				offset = getTableOffset(targetStringIndex, sourceStringIndex);
+				element = elementTable.get(offset);
+				if (sourceStringIndex > 0) {
+					element.setMinimumDistanceFromSameSource(elementTable.get(offset - targetSize));
+				}
+				if (targetStringIndex > 0) {
+					element.setMinimumDistanceFromSameTarget(elementTable.get(offset - 1));
+				}
+				if (sourceStringIndex > 0 && targetStringIndex > 0) {
+					element.setMinimumDistanceFromDiagonal(elementTable.get(offset - targetSize - 1));
+				}
+			}
+		}
 		
-		return neighbor;
+		this.table = elementTable;
 		
+		return this.table;
 	}
 	
 	/**
@@ -274,7 +241,7 @@ public class DynamicTimeWarpEditDistanceTable {
 		} else {
 			return true;
 		}
-				
+	
 	}
 	
 	/**
@@ -287,14 +254,14 @@ public class DynamicTimeWarpEditDistanceTable {
 	private int getTableOffset(int column, int row) {
 		
 		return row * this.target.length() + column;
-		
+	
 	}
 	
 	/**
-	 * @return a protected copy of the table
+	 * @return a protected copy of the table view
 	 */
 	public List<TableElement> getTable() {
-		return Collections.unmodifiableList(this.table);
+		return Collections.unmodifiableList(getElementTable());
 	}
 	
 	/**
@@ -339,7 +306,7 @@ public class DynamicTimeWarpEditDistanceTable {
 		fullStringSubstitutionCost += this.target.length();
 		
 		return fullStringSubstitutionCost;
-
+	
 	}
 
 }
\ No newline at end of file
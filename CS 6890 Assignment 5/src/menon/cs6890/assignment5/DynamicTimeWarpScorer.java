@@ -0,0 +1,501 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Computes only the Dynamic Time Warping (DTW) alignment cost between a target and a source string. Instead of a full
+ * table with back traces, two rolling rows as long as the shorter string are used. The recurrence treats both strings
+ * the same way, so the table can be turned either way round. The rows are reused between calls, so an instance must
+ * not be shared between threads.
+ *
+ * When only a cost below a limit is of interest, cheap lower bounds of the cost are checked first, and the table is
+ * abandoned as soon as a whole row reaches the limit. Every alignment passes through each row and the cost never
+ * decreases along it, so the lowest cost in a row is a lower bound of the alignment cost as well.
+ */
+public class DynamicTimeWarpScorer {
+
+	public static final int NO_ALIGNMENT = Integer.MAX_VALUE;
+	public static final int COST_LIMIT_EXCEEDED = Integer.MAX_VALUE;
+	private static final int CHARACTERS_PER_MASK = 64;
+	private static final int OUTSIDE_WINDOW_COST = Integer.MAX_VALUE / 2;
+
+	private int[] previousRow;
+	private int[] currentRow;
+	private String maskedSource;
+	private long sourceLowCharacterMask;
+	private long sourceHighCharacterMask;
+
+	/**
+	 * Constructor
+	 */
+	public DynamicTimeWarpScorer() {
+
+		this.previousRow = new int[0];
+		this.currentRow = new int[0];
+		this.maskedSource = null;
+	}
+
+	/**
+	 * Returns the same cost as the last element of a DynamicTimeWarpEditDistanceTable for the same strings
+	 *
+	 * @param target
+	 * @param source
+	 * @return the alignment cost
+	 */
+	public int getAlignmentCost(String target, String source) {
+
+		if (target == null || source == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (target.length() == 0 || source.length() == 0) {
+			throw new IllegalArgumentException("Empty strings not allowed.");
+		}
+
+		//The rows run along the shorter string
+		if (target.length() <= source.length()) {
+			return getAlignmentCostOfRows(target, source, COST_LIMIT_EXCEEDED);
+		} else {
+			return getAlignmentCostOfRows(source, target, COST_LIMIT_EXCEEDED);
+		}
+	}
+
+	/**
+	 * Returns the alignment cost when the alignment may only pass through the elements of the table inside the
+	 * window. Only those elements are computed, so a narrow window takes time in proportion to the window size
+	 * times the length of the longer string rather than to the size of the table.
+	 *
+	 * @param target
+	 * @param source
+	 * @param window
+	 * @param windowSize the band width for a Sakoe-Chiba band or the largest slope for an Itakura parallelogram
+	 * @return the alignment cost or NO_ALIGNMENT if the window does not join the first and last elements of the table
+	 */
+	public int getAlignmentCost(String target, String source, DynamicTimeWarpWindow window, int windowSize) {
+
+		if (target == null || source == null || window == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (windowSize < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		if (window == DynamicTimeWarpWindow.NONE) {
+			return getAlignmentCost(target, source);
+		}
+
+		if (target.length() == 0 || source.length() == 0) {
+			throw new IllegalArgumentException("Empty strings not allowed.");
+		}
+
+		//Both windows are symmetric, so the rows can still run along the shorter string
+		if (target.length() <= source.length()) {
+			return getWindowedAlignmentCostOfRows(target, source, window, windowSize, COST_LIMIT_EXCEEDED);
+		} else {
+			return getWindowedAlignmentCostOfRows(source, target, window, windowSize, COST_LIMIT_EXCEEDED);
+		}
+	}
+
+	/**
+	 * Returns the alignment cost only if it is below the cost limit. The character histogram bound is checked first,
+	 * then the envelope bound if there is a window, and the table is only computed if neither reaches the limit.
+	 *
+	 * @param target
+	 * @param source
+	 * @param window
+	 * @param windowSize the band width for a Sakoe-Chiba band or the largest slope for an Itakura parallelogram
+	 * @param costLimit
+	 * @return the alignment cost or COST_LIMIT_EXCEEDED if it is not below the cost limit or there is no alignment in the window
+	 */
+	public int getAlignmentCost(String target, String source, DynamicTimeWarpWindow window, int windowSize, int costLimit) {
+
+		if (target == null || source == null || window == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (windowSize < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		if (target.length() == 0 || source.length() == 0) {
+			throw new IllegalArgumentException("Empty strings not allowed.");
+		}
+
+		//A word is scored against many terms in a row, so the character masks of the source are kept between calls
+		if (source != this.maskedSource) {
+			this.sourceLowCharacterMask = getCharacterMask(source, 0);
+			this.sourceHighCharacterMask = getCharacterMask(source, CHARACTERS_PER_MASK);
+			this.maskedSource = source;
+		}
+
+		//The bound cannot be more than the length of the longer string, so it is only worth counting below that
+		if (costLimit <= Math.max(target.length(), source.length()) && 
+			(getMissingCharacterCount(target, source, this.sourceLowCharacterMask, this.sourceHighCharacterMask) >= costLimit ||
+			 getMissingCharacterCount(source, target, getCharacterMask(target, 0), getCharacterMask(target, CHARACTERS_PER_MASK)) >= costLimit)) {
+			return COST_LIMIT_EXCEEDED;
+		}
+
+		//Both windows are symmetric, so the rows can still run along the shorter string
+		String columnString = target.length() <= source.length() ? target : source;
+		String rowString = target.length() <= source.length() ? source : target;
+		int alignmentCost = 0;
+
+		if (window == DynamicTimeWarpWindow.NONE) {
+			alignmentCost = getAlignmentCostOfRows(columnString, rowString, costLimit);
+		} else if (getEnvelopeLowerBound(columnString, rowString, window, windowSize, costLimit) >= costLimit) {
+			return COST_LIMIT_EXCEEDED;
+		} else {
+			alignmentCost = getWindowedAlignmentCostOfRows(columnString, rowString, window, windowSize, costLimit);
+		}
+
+		return alignmentCost < costLimit ? alignmentCost : COST_LIMIT_EXCEEDED;
+	}
+
+	/**
+	 * Every character of one string is aligned with at least one character of the other, so each character that
+	 * does not occur anywhere in the other string adds at least 1 to the cost. One element can cover such a character
+	 * of each string at once, so the larger of the two counts is used.
+	 *
+	 * @param target
+	 * @param source
+	 * @return a lower bound of the alignment cost
+	 */
+	public int getCharacterHistogramLowerBound(String target, String source) {
+
+		if (target == null || source == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		return Math.max(getMissingCharacterCount(target, source, getCharacterMask(source, 0), getCharacterMask(source, CHARACTERS_PER_MASK)), 
+				        getMissingCharacterCount(source, target, getCharacterMask(target, 0), getCharacterMask(target, CHARACTERS_PER_MASK)));
+	}
+
+	/**
+	 * Inside a window each character can only be aligned with the characters of the other string within its
+	 * envelope, the part of the other string the window allows for it (LB_Keogh). Each character that does not occur
+	 * in its envelope adds at least 1 to the cost. Without a window the envelope is the whole of the other string and
+	 * this is the same as the character histogram bound.
+	 *
+	 * @param target
+	 * @param source
+	 * @param window
+	 * @param windowSize the band width for a Sakoe-Chiba band or the largest slope for an Itakura parallelogram
+	 * @return a lower bound of the alignment cost
+	 */
+	public int getEnvelopeLowerBound(String target, String source, DynamicTimeWarpWindow window, int windowSize) {
+
+		if (target == null || source == null || window == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (window == DynamicTimeWarpWindow.NONE) {
+			return getCharacterHistogramLowerBound(target, source);
+		}
+
+		return getEnvelopeLowerBound(target, source, window, windowSize, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param columnString
+	 * @param rowString
+	 * @param window
+	 * @param windowSize
+	 * @param costLimit counting stops once the bound reaches this value
+	 * @return a lower bound of the alignment cost
+	 */
+	private int getEnvelopeLowerBound(String columnString, String rowString, DynamicTimeWarpWindow window, int windowSize, int costLimit) {
+
+		int rowSize = columnString.length(), rowCount = rowString.length();
+		int rowLowerBound = 0, columnLowerBound = 0;
+
+		//The rows of the window for a column are found by turning the table round, which leaves both windows the same
+		for (int rowIndex = 0; rowIndex < rowCount && rowLowerBound < costLimit; ++rowIndex) {
+			if (!occursBetween(rowString.charAt(rowIndex), columnString, 
+					           getFirstColumnInWindow(rowIndex, rowSize, rowCount, window, windowSize), 
+					           getLastColumnInWindow(rowIndex, rowSize, rowCount, window, windowSize))) {
+				++rowLowerBound;
+			}
+		}
+
+		if (rowLowerBound >= costLimit) {
+			return rowLowerBound;
+		}
+
+		for (int columnIndex = 0; columnIndex < rowSize && columnLowerBound < costLimit; ++columnIndex) {
+			if (!occursBetween(columnString.charAt(columnIndex), rowString, 
+					           getFirstColumnInWindow(columnIndex, rowCount, rowSize, window, windowSize), 
+					           getLastColumnInWindow(columnIndex, rowCount, rowSize, window, windowSize))) {
+				++columnLowerBound;
+			}
+		}
+
+		return Math.max(rowLowerBound, columnLowerBound);
+	}
+
+	/**
+	 * @param character
+	 * @param string
+	 * @param firstIndex
+	 * @param lastIndex
+	 * @return true if the character occurs in the string between the two indexes
+	 */
+	private static boolean occursBetween(char character, String string, int firstIndex, int lastIndex) {
+
+		for (int index = firstIndex; index <= lastIndex; ++index) {
+			if (string.charAt(index) == character) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @param string
+	 * @param firstCharacter
+	 * @return a mask with a bit set for each of the 64 characters from the first character that occurs in the string
+	 */
+	private static long getCharacterMask(String string, int firstCharacter) {
+
+		long characterMask = 0;
+		int characterOffset = 0;
+		for (int index = 0; index < string.length(); ++index) {
+			characterOffset = string.charAt(index) - firstCharacter;
+			if (characterOffset >= 0 && characterOffset < CHARACTERS_PER_MASK) {
+				characterMask |= 1L << characterOffset;
+			}
+		}
+
+		return characterMask;
+	}
+
+	/**
+	 * Characters below 128 are looked up in the masks of the other string, and any others are searched for
+	 *
+	 * @param string
+	 * @param otherString
+	 * @param otherLowCharacterMask mask of the characters below 64 in the other string
+	 * @param otherHighCharacterMask mask of the characters from 64 to 127 in the other string
+	 * @return the number of characters of the string that do not occur in the other string
+	 */
+	private static int getMissingCharacterCount(String string, String otherString, long otherLowCharacterMask, long otherHighCharacterMask) {
+
+		int missingCharacterCount = 0;
+		char character;
+		for (int index = 0; index < string.length(); ++index) {
+			character = string.charAt(index);
+			if (character < CHARACTERS_PER_MASK) {
+				if ((otherLowCharacterMask & (1L << character)) == 0) {
+					++missingCharacterCount;
+				}
+			} else if (character < 2 * CHARACTERS_PER_MASK) {
+				if ((otherHighCharacterMask & (1L << (character - CHARACTERS_PER_MASK))) == 0) {
+					++missingCharacterCount;
+				}
+			} else if (otherString.indexOf(character) < 0) {
+				++missingCharacterCount;
+			}
+		}
+
+		return missingCharacterCount;
+	}
+
+	/**
+	 * @param columnString the string along each row
+	 * @param rowString the string down the rows
+	 * @param costLimit
+	 * @return the alignment cost or COST_LIMIT_EXCEEDED if a whole row reaches the cost limit
+	 */
+	private int getAlignmentCostOfRows(String columnString, String rowString, int costLimit) {
+
+		int rowSize = columnString.length();
+		ensureRowCapacity(rowSize);
+
+		int[] previousRow = this.previousRow, currentRow = this.currentRow, swapRow = null;
+		char rowCharacter = rowString.charAt(0);
+
+		//The first row is the cost of warping the first row character to each column character
+		previousRow[0] = columnString.charAt(0) == rowCharacter ? 0 : 1;
+		for (int columnIndex = 1; columnIndex < rowSize; ++columnIndex) {
+			previousRow[columnIndex] = columnString.charAt(columnIndex) == rowCharacter ? previousRow[columnIndex - 1] : previousRow[columnIndex - 1] + 1;
+		}
+
+		int lowestNeighborCost = 0, lowestCostInRow = previousRow[0];
+
+		for (int rowIndex = 1; rowIndex < rowString.length(); ++rowIndex) {
+
+			//Abandon the table if no element in the previous row is below the limit
+			if (lowestCostInRow >= costLimit) {
+				return COST_LIMIT_EXCEEDED;
+			}
+
+			rowCharacter = rowString.charAt(rowIndex);
+
+			//The first column is the cost of warping the first column character to each row character
+			currentRow[0] = columnString.charAt(0) == rowCharacter ? previousRow[0] : previousRow[0] + 1;
+			lowestCostInRow = currentRow[0];
+
+			for (int columnIndex = 1; columnIndex < rowSize; ++columnIndex) {
+
+				lowestNeighborCost = Math.min(Math.min(previousRow[columnIndex], currentRow[columnIndex - 1]), previousRow[columnIndex - 1]);
+
+				//The characters are compared once, as a mismatch adds the same cost whichever neighbor is moved from
+				currentRow[columnIndex] = rowCharacter == columnString.charAt(columnIndex) ? lowestNeighborCost : lowestNeighborCost + 1;
+				lowestCostInRow = Math.min(lowestCostInRow, currentRow[columnIndex]);
+			}
+
+			//The current row becomes the previous row for the next iteration
+			swapRow = previousRow;
+			previousRow = currentRow;
+			currentRow = swapRow;
+		}
+
+		return previousRow[rowSize - 1];
+
+	}
+
+	/**
+	 * @param columnString the string along each row
+	 * @param rowString the string down the rows
+	 * @param window
+	 * @param windowSize
+	 * @param costLimit
+	 * @return the alignment cost, or NO_ALIGNMENT if the window does not join the first and last elements of the table
+	 *         or a whole row reaches the cost limit
+	 */
+	private int getWindowedAlignmentCostOfRows(String columnString, String rowString, DynamicTimeWarpWindow window, int windowSize, int costLimit) {
+
+		int rowSize = columnString.length(), rowCount = rowString.length();
+		ensureRowCapacity(rowSize);
+
+		//The alignment has to start at the first element and end at the last one
+		if (getFirstColumnInWindow(0, rowSize, rowCount, window, windowSize) > 0 || 
+			getLastColumnInWindow(rowCount - 1, rowSize, rowCount, window, windowSize) < rowSize - 1) {
+			return NO_ALIGNMENT;
+		}
+
+		int[] previousRow = this.previousRow, currentRow = this.currentRow, swapRow = null;
+		int firstColumnInWindow = 0, lastColumnInWindow = getLastColumnInWindow(0, rowSize, rowCount, window, windowSize);
+		int previousFirstColumnInWindow = 0, previousLastColumnInWindow = 0;
+		char rowCharacter = rowString.charAt(0);
+
+		//The first row is the cost of warping the first row character to each column character in the window
+		previousRow[0] = columnString.charAt(0) == rowCharacter ? 0 : 1;
+		for (int columnIndex = 1; columnIndex <= lastColumnInWindow; ++columnIndex) {
+			previousRow[columnIndex] = columnString.charAt(columnIndex) == rowCharacter ? previousRow[columnIndex - 1] : previousRow[columnIndex - 1] + 1;
+		}
+
+		int lowestNeighborCost = 0, lowestCostInRow = previousRow[0];
+
+		for (int rowIndex = 1; rowIndex < rowCount; ++rowIndex) {
+
+			//Abandon the table if no element in the previous row is below the limit
+			if (lowestCostInRow >= costLimit) {
+				return NO_ALIGNMENT;
+			}
+
+			rowCharacter = rowString.charAt(rowIndex);
+			lowestCostInRow = OUTSIDE_WINDOW_COST;
+			previousFirstColumnInWindow = firstColumnInWindow;
+			previousLastColumnInWindow = lastColumnInWindow;
+			firstColumnInWindow = getFirstColumnInWindow(rowIndex, rowSize, rowCount, window, windowSize);
+			lastColumnInWindow = getLastColumnInWindow(rowIndex, rowSize, rowCount, window, windowSize);
+
+			if (firstColumnInWindow > lastColumnInWindow) {
+				return NO_ALIGNMENT;
+			}
+
+			//Elements outside the window of the previous row or left of the window of this row cannot be moved from
+			for (int columnIndex = firstColumnInWindow; columnIndex <= lastColumnInWindow; ++columnIndex) {
+
+				lowestNeighborCost = OUTSIDE_WINDOW_COST;
+				if (columnIndex >= previousFirstColumnInWindow && columnIndex <= previousLastColumnInWindow) {
+					lowestNeighborCost = previousRow[columnIndex];
+				}
+				if (columnIndex > firstColumnInWindow) {
+					lowestNeighborCost = Math.min(lowestNeighborCost, currentRow[columnIndex - 1]);
+				}
+				if (columnIndex > previousFirstColumnInWindow && columnIndex - 1 <= previousLastColumnInWindow) {
+					lowestNeighborCost = Math.min(lowestNeighborCost, previousRow[columnIndex - 1]);
+				}
+
+				//The characters are compared once, as a mismatch adds the same cost whichever neighbor is moved from
+				if (lowestNeighborCost >= OUTSIDE_WINDOW_COST) {
+					currentRow[columnIndex] = OUTSIDE_WINDOW_COST;
+				} else {
+					currentRow[columnIndex] = rowCharacter == columnString.charAt(columnIndex) ? lowestNeighborCost : lowestNeighborCost + 1;
+				}
+				lowestCostInRow = Math.min(lowestCostInRow, currentRow[columnIndex]);
+			}
+
+			//The current row becomes the previous row for the next iteration
+			swapRow = previousRow;
+			previousRow = currentRow;
+			currentRow = swapRow;
+		}
+
+		return previousRow[rowSize - 1] < OUTSIDE_WINDOW_COST ? previousRow[rowSize - 1] : NO_ALIGNMENT;
+
+	}
+
+	/**
+	 * @param rowIndex
+	 * @param rowSize
+	 * @param rowCount
+	 * @param window
+	 * @param windowSize
+	 * @return the first column of the row inside the window
+	 */
+	private static int getFirstColumnInWindow(int rowIndex, int rowSize, int rowCount, DynamicTimeWarpWindow window, int windowSize) {
+
+		long firstColumn = 0;
+
+		if (window == DynamicTimeWarpWindow.SAKOE_CHIBA) {
+			firstColumn = (long) rowIndex - windowSize;
+		} else if (windowSize > 0) {
+			//Above the line of the least slope from the first element and the line of the greatest slope into the last element
+			firstColumn = Math.max((rowIndex + (long) windowSize - 1) / windowSize, rowSize - 1 - (long) windowSize * (rowCount - 1 - rowIndex));
+		} else {
+			firstColumn = rowIndex == 0 ? 0 : rowSize;
+		}
+
+		return (int) Math.max(firstColumn, 0);
+	}
+
+	/**
+	 * @param rowIndex
+	 * @param rowSize
+	 * @param rowCount
+	 * @param window
+	 * @param windowSize
+	 * @return the last column of the row inside the window
+	 */
+	private static int getLastColumnInWindow(int rowIndex, int rowSize, int rowCount, DynamicTimeWarpWindow window, int windowSize) {
+
+		long lastColumn = 0;
+
+		if (window == DynamicTimeWarpWindow.SAKOE_CHIBA) {
+			lastColumn = (long) rowIndex + windowSize;
+		} else if (windowSize > 0) {
+			//Below the line of the greatest slope from the first element and the line of the least slope into the last element
+			lastColumn = Math.min((long) windowSize * rowIndex, rowSize - 1 - (rowCount - 1 - rowIndex + (long) windowSize - 1) / windowSize);
+		} else {
+			lastColumn = -1;
+		}
+
+		return (int) Math.min(lastColumn, rowSize - 1);
+	}
+
+	/**
+	 * Grow the rolling rows if they are shorter than the required size
+	 *
+	 * @param rowSize
+	 */
+	private void ensureRowCapacity(int rowSize) {
+
+		if (this.previousRow.length < rowSize) {
+			this.previousRow = new int[rowSize];
+			this.currentRow = new int[rowSize];
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package menon.cs6890.assignment5;
+
+/**
+ * The global constraints DTWSpellchecker can place on the elements of the table that an alignment may pass through
+ */
+public enum DynamicTimeWarpWindow {
+	
+	/**
+	 * Every element of the table is computed, so any amount of warping is allowed
+	 */
+	NONE,
+	
+	/**
+	 * Only the elements at most the window size away from the main diagonal are computed (Sakoe-Chiba band). 
+	 * Nutrition terms whose length differs from the word's by more than the window size are never matched.
+	 */
+	SAKOE_CHIBA,
+	
+	/**
+	 * Only the elements inside a parallelogram whose sides have slopes of the window size and its inverse are 
+	 * computed (Itakura), so neither string can be warped faster than the window size. Nutrition terms more than 
+	 * the window size times longer or shorter than the word are never matched.
+	 */
+	ITAKURA
+	
+}
@@ -0,0 +1,253 @@
+package menon.cs6890.assignment5;
+
+import java.io.IOException;
+
+/**
+ * The edits that transform a source string into a target string, in order. Each edit is an operation code with the
+ * characters, positions and cost it applies to, held in one primitive array per field rather than one object per edit.
+ * The human readable form is only written out when it is asked for, either as a string or straight to a writer.
+ * <p>
+ * Insertions only have a target character and position, and deletions only have a source character and position.
+ * Positions start at 1.
+ */
+public class EditScript {
+
+	public static final byte OPERATION_MATCH = 0;
+	public static final byte OPERATION_SUBSTITUTE = 1;
+	public static final byte OPERATION_INSERT = 2;
+	public static final byte OPERATION_DELETE = 3;
+	public static final byte OPERATION_WARP = 4;
+	private static final String[] ACTION_CODES = {"mat", "sub", "ins", "del", "wrp"};
+	private static final char SINGLE_QUOTE = '\'';
+	private static final String COMMA_SEPARATOR = ", ";
+	private static final char DUMMY_CHARACTER = ' ';
+
+	private byte[] operations;
+	private char[] sourceCharacters;
+	private char[] targetCharacters;
+	private int[] sourcePositions;
+	private int[] targetPositions;
+	private int[] costs;
+	private int firstEditIndex;
+	private String editString;
+
+	/**
+	 * Constructor. The edits are read back from the end of the alignment, so they are filled in from the last one.
+	 *
+	 * @param maximumEditCount the most edits the script can hold
+	 */
+	EditScript(int maximumEditCount) {
+
+		if (maximumEditCount < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		this.operations = new byte[maximumEditCount];
+		this.sourceCharacters = new char[maximumEditCount];
+		this.targetCharacters = new char[maximumEditCount];
+		this.sourcePositions = new int[maximumEditCount];
+		this.targetPositions = new int[maximumEditCount];
+		this.costs = new int[maximumEditCount];
+		this.firstEditIndex = maximumEditCount;
+		this.editString = null;
+	}
+
+	/**
+	 * Put an edit before the ones added so far
+	 *
+	 * @param operation one of the operation codes
+	 * @param sourceCharacter
+	 * @param targetCharacter
+	 * @param sourcePosition
+	 * @param targetPosition
+	 * @param cost
+	 */
+	void addEditBefore(byte operation, char sourceCharacter, char targetCharacter, int sourcePosition, int targetPosition, int cost) {
+
+		if (this.firstEditIndex == 0) {
+			throw new IllegalStateException("The edit script is full.");
+		}
+
+		int editIndex = --this.firstEditIndex;
+		this.operations[editIndex] = operation;
+		this.sourceCharacters[editIndex] = sourceCharacter;
+		this.targetCharacters[editIndex] = targetCharacter;
+		this.sourcePositions[editIndex] = sourcePosition;
+		this.targetPositions[editIndex] = targetPosition;
+		this.costs[editIndex] = cost;
+		this.editString = null;
+	}
+
+	/**
+	 * Put an insertion before the edits added so far
+	 *
+	 * @param targetCharacter
+	 * @param targetPosition
+	 * @param cost
+	 */
+	void addInsertionBefore(char targetCharacter, int targetPosition, int cost) {
+		addEditBefore(OPERATION_INSERT, DUMMY_CHARACTER, targetCharacter, 0, targetPosition, cost);
+	}
+
+	/**
+	 * Put a deletion before the edits added so far
+	 *
+	 * @param sourceCharacter
+	 * @param sourcePosition
+	 * @param cost
+	 */
+	void addDeletionBefore(char sourceCharacter, int sourcePosition, int cost) {
+		addEditBefore(OPERATION_DELETE, sourceCharacter, DUMMY_CHARACTER, sourcePosition, 0, cost);
+	}
+
+	/**
+	 * @return the number of edits
+	 */
+	public int getEditCount() {
+		return this.operations.length - this.firstEditIndex;
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return one of the operation codes
+	 */
+	public byte getOperation(int edit) {
+		return this.operations[getEditIndex(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the short name of the operation, such as "ins"
+	 */
+	public String getActionCode(int edit) {
+		return ACTION_CODES[getOperation(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the source character, or a space for an insertion
+	 */
+	public char getSourceCharacter(int edit) {
+		return this.sourceCharacters[getEditIndex(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the target character, or a space for a deletion
+	 */
+	public char getTargetCharacter(int edit) {
+		return this.targetCharacters[getEditIndex(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the position in the source, or 0 for an insertion
+	 */
+	public int getSourcePosition(int edit) {
+		return this.sourcePositions[getEditIndex(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the position in the target, or 0 for a deletion
+	 */
+	public int getTargetPosition(int edit) {
+		return this.targetPositions[getEditIndex(edit)];
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the cost of the edit
+	 */
+	public int getCost(int edit) {
+		return this.costs[getEditIndex(edit)];
+	}
+
+	/**
+	 * @return the sum of the costs of the edits
+	 */
+	public int getTotalCost() {
+
+		int totalCost = 0;
+		for (int editIndex = this.firstEditIndex; editIndex < this.costs.length; ++editIndex) {
+			totalCost += this.costs[editIndex];
+		}
+
+		return totalCost;
+	}
+
+	/**
+	 * Write the edits separated by commas, such as "mat('c', 'c', 1, 1, 0), ins('a', 2, 1)"
+	 *
+	 * @param appendable
+	 * @throws IOException if the edits cannot be written
+	 */
+	public void writeTo(Appendable appendable) throws IOException {
+
+		if (appendable == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		byte operation = OPERATION_MATCH;
+		for (int editIndex = this.firstEditIndex; editIndex < this.operations.length; ++editIndex) {
+
+			if (editIndex > this.firstEditIndex) {
+				appendable.append(COMMA_SEPARATOR);
+			}
+
+			operation = this.operations[editIndex];
+			appendable.append(ACTION_CODES[operation]).append('(');
+
+			if (operation == OPERATION_INSERT) {
+				appendable.append(SINGLE_QUOTE).append(this.targetCharacters[editIndex]).append(SINGLE_QUOTE);
+				appendable.append(COMMA_SEPARATOR).append(Integer.toString(this.targetPositions[editIndex]));
+			} else if (operation == OPERATION_DELETE) {
+				appendable.append(SINGLE_QUOTE).append(this.sourceCharacters[editIndex]).append(SINGLE_QUOTE);
+				appendable.append(COMMA_SEPARATOR).append(Integer.toString(this.sourcePositions[editIndex]));
+			} else { //this means the action was match, substitute or warp
+				appendable.append(SINGLE_QUOTE).append(this.sourceCharacters[editIndex]).append(SINGLE_QUOTE);
+				appendable.append(COMMA_SEPARATOR);
+				appendable.append(SINGLE_QUOTE).append(this.targetCharacters[editIndex]).append(SINGLE_QUOTE);
+				appendable.append(COMMA_SEPARATOR).append(Integer.toString(this.sourcePositions[editIndex]));
+				appendable.append(COMMA_SEPARATOR).append(Integer.toString(this.targetPositions[editIndex]));
+			}
+
+			appendable.append(COMMA_SEPARATOR).append(Integer.toString(this.costs[editIndex]));
+			appendable.append(')');
+		}
+	}
+
+	/**
+	 * @return the edits separated by commas, which are only written out the first time
+	 */
+	@Override
+	public String toString() {
+
+		if (this.editString == null) {
+			StringBuilder editString = new StringBuilder(getEditCount() * 24);
+			try {
+				writeTo(editString);
+			} catch (IOException e) {
+				//A string builder does not throw
+				throw new IllegalStateException(e);
+			}
+			this.editString = editString.toString();
+		}
+
+		return this.editString;
+	}
+
+	/**
+	 * @param edit the number of the edit, starting at 0
+	 * @return the index of the edit in the arrays
+	 */
+	private int getEditIndex(int edit) {
+
+		if (edit < 0 || edit >= getEditCount()) {
+			throw new IllegalArgumentException("Invalid edit number.");
+		}
+
+		return this.firstEditIndex + edit;
+	}
+
+}
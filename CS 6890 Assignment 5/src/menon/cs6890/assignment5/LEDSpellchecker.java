@@ -1,54 +1,162 @@
 package menon.cs6890.assignment5;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Uses Levenshtein Edit Distance (LED) to detect and correct OCR spellings
  */
 
-public class LEDSpellchecker {
-	
-	private Set<String> nutritionDictionary;
+public class LEDSpellchecker implements WordSpellchecker {
 	
+	private Dictionary dictionary;
+	private int threadCount;
+	private boolean streaming;
+	private CorrectionCache correctionCache;
+	private PersistentCorrectionCache persistentCorrectionCache;
+	private String configurationKey;
+	private ForkJoinPool dictionaryScanPool;
+	private int insertionCost;
+	private int deletionCost;
+	private int substitutionCost;
+	private ThreadLocal<LevenshteinEditDistanceScorer> levenshteinEditDistanceScorers;
+	private ThreadLocal<LevenshteinBitParallelScorer> levenshteinBitParallelScorers;
+	private Map<String, BitParallelPattern> bitParallelPatterns;
+	private LevenshteinScoringMode scoringMode;
+	private int maximumEditCost;
+	private DictionaryLookupMode lookupMode;
+	private BurkhardKellerTree burkhardKellerTree;
+	private DeletionIndex deletionIndex;
+	private DictionaryTrie dictionaryTrie;
+	private DictionaryAutomaton dictionaryAutomaton;
+	private int maximumDeletions;
+	private NGramIndex nGramIndex;
+	private int nGramCandidateCount;
+	private int nGramMaximumLengthDifference;
+	private long checkpointedEditsCellCount;
 	
 	public static final int STANDARD_INSERTION_COST = 1;
 	public static final int STANDARD_DELETION_COST = 1;
 	public static final int STANDARD_SUBSTITUTION_COST = 2;
+	public static final int DEFAULT_MAXIMUM_EDIT_COST = 4;
+	public static final int DEFAULT_MAXIMUM_DELETIONS = 2;
+	public static final int DEFAULT_N_GRAM_MAXIMUM_LENGTH_DIFFERENCE = 3;
+	public static final long DEFAULT_CHECKPOINTED_EDITS_CELL_COUNT = 1L << 22;
 	private static final String NUTRITION_DICTIONARY_FILE_NAME = "NutritionDictionary.txt";
 	private static final String NO_MATCH_FOUND = "NULL";
-	private static final String ACTION_CODE_DELETE = "del";
-	private static final String ACTION_CODE_INSERT = "ins";
-	private static final String ACTION_CODE_MATCH = "mat";
-	private static final String ACTION_CODE_SUBSTITUTE = "sub";
-	private static final String SINGLE_QUOTE = "\'";
-	private static final String COMMA_SEPARATOR = ", ";
-	private static final char DUMMY_CHARACTER = ' ';
 	
 	/**
 	 * Constructor
 	 */
 	public LEDSpellchecker() {
 		
-		this.nutritionDictionary = new HashSet<String>();
+		this(STANDARD_INSERTION_COST, STANDARD_DELETION_COST, STANDARD_SUBSTITUTION_COST);
+	}
+	
+	/**
+	 * Constructor that takes the costs used to score nutrition terms
+	 * 
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 */
+	public LEDSpellchecker(int insertionCost, int deletionCost, int substitutionCost) {
+		
+		this(insertionCost, deletionCost, substitutionCost, null);
+	}
+	
+	/**
+	 * Constructor that loads the dictionary from a snapshot written by DictionarySnapshot. The BK-tree and trie in the
+	 * snapshot are used as they are, unless the BK-tree was built with other costs.
+	 * 
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @param dictionarySnapshotFilePath the snapshot file, or null to read the dictionary text file
+	 */
+	public LEDSpellchecker(int insertionCost, int deletionCost, int substitutionCost, String dictionarySnapshotFilePath) {
+		
+		this(loadDictionary(dictionarySnapshotFilePath), insertionCost, deletionCost, substitutionCost);
+	}
+	
+	/**
+	 * Constructor that shares a dictionary loaded earlier
+	 * 
+	 * @param dictionary
+	 */
+	public LEDSpellchecker(Dictionary dictionary) {
 		
-		if (!ableToLoadDictionaryFromFileInputFile()) {
-			System.exit(0);
+		this(dictionary, STANDARD_INSERTION_COST, STANDARD_DELETION_COST, STANDARD_SUBSTITUTION_COST);
+	}
+	
+	/**
+	 * Constructor that shares a dictionary loaded earlier and takes the costs used to score nutrition terms
+	 * 
+	 * @param dictionary
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 */
+	public LEDSpellchecker(Dictionary dictionary, int insertionCost, int deletionCost, int substitutionCost) {
+		
+		if (dictionary == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (insertionCost < 0 || deletionCost < 0 || substitutionCost < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
 		}
+		
+		this.dictionary = dictionary;
+		this.threadCount = 1;
+		this.streaming = false;
+		this.correctionCache = new CorrectionCache();
+		this.persistentCorrectionCache = null;
+		this.dictionaryScanPool = null;
+		this.insertionCost = insertionCost;
+		this.deletionCost = deletionCost;
+		this.substitutionCost = substitutionCost;
+		
+		//The scorers reuse their rows and bit vectors, so each thread gets its own
+		this.levenshteinEditDistanceScorers = new ThreadLocal<LevenshteinEditDistanceScorer>() {
+			@Override
+			protected LevenshteinEditDistanceScorer initialValue() {
+				return new LevenshteinEditDistanceScorer(LEDSpellchecker.this.insertionCost, LEDSpellchecker.this.deletionCost, LEDSpellchecker.this.substitutionCost);
+			}
+		};
+		this.levenshteinBitParallelScorers = new ThreadLocal<LevenshteinBitParallelScorer>() {
+			@Override
+			protected LevenshteinBitParallelScorer initialValue() {
+				return new LevenshteinBitParallelScorer();
+			}
+		};
+		
+		//The bit masks are only built once bit parallel scoring is chosen
+		this.bitParallelPatterns = null;
+		
+		this.scoringMode = LevenshteinScoringMode.EXACT;
+		this.maximumEditCost = DEFAULT_MAXIMUM_EDIT_COST;
+		this.lookupMode = DictionaryLookupMode.LINEAR_SCAN;
+		this.burkhardKellerTree = null;
+		this.deletionIndex = null;
+		this.dictionaryTrie = null;
+		this.dictionaryAutomaton = null;
+		this.maximumDeletions = DEFAULT_MAXIMUM_DELETIONS;
+		this.nGramIndex = null;
+		this.nGramCandidateCount = 0;
+		this.nGramMaximumLengthDifference = DEFAULT_N_GRAM_MAXIMUM_LENGTH_DIFFERENCE;
+		this.checkpointedEditsCellCount = DEFAULT_CHECKPOINTED_EDITS_CELL_COUNT;
+		updateConfigurationKey();
 	}
 		
 	/**
@@ -58,28 +166,362 @@ public class LEDSpellchecker {
 	 * 
 	 * @param input_file_path
 	 * @param output_file_path
+	 * @throws IllegalStateException if the file cannot be spell checked in streaming mode
 	 */
 	
 	public void spellcheckFile(String input_file_path, String output_file_path) {
+		
+		Calendar start = null, end = null;
+		
+		if (this.streaming) {
+			
+			start = Calendar.getInstance();
+			
+			//Read, correct and write the words a few at a time, the pipeline has already logged why it failed
+			if (!new StreamingSpellcheckPipeline(this, this.threadCount, StreamingSpellcheckPipeline.DEFAULT_QUEUE_CAPACITY).spellcheckFile(input_file_path, output_file_path)) {
+				throw new IllegalStateException("Unable to spell check file " + input_file_path + " into " + output_file_path + ".");
+			}
+			
+			end = Calendar.getInstance();
+			System.out.println("LED Spellcheck took " + (end.getTimeInMillis() - start.getTimeInMillis()) + " milliseconds to complete.");
+			return;
+		}
 			
 		List<String> wordsToSpellcheck = getWordsFromTextFile(input_file_path);
-		List<String> correctedWords = new ArrayList<String>();
+		List<String> correctedWords = null;
 		
-		Calendar start = Calendar.getInstance();
+		start = Calendar.getInstance();
 		
-		//Loop through all the words to be spell checked
-		for (String word : wordsToSpellcheck) {
-			correctedWords.add(spellcheckWord(word));
-		}
+		//Spread the words to be spell checked over the threads
+		correctedWords = BatchSpellchecker.spellcheckWords(wordsToSpellcheck, this, this.threadCount);
 		
-		Calendar end = Calendar.getInstance();		
+		end = Calendar.getInstance();		
 		System.out.println("LED Spellcheck took " + (end.getTimeInMillis() - start.getTimeInMillis()) + " milliseconds to complete.");
 		
 		//Write the corrected words to the output file
 		insertWordsIntoTextFile(correctedWords, output_file_path);
 	}
 	
+	/**
+	 * @return true if spellcheckFile reads, corrects and writes the words a few at a time
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+	
+	/**
+	 * In streaming mode the memory used by spellcheckFile does not grow with the size of the input file, and the 
+	 * first corrections are written while the rest of the file is still being read
+	 * 
+	 * @param streaming true if spellcheckFile should read, correct and write the words a few at a time
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+	
+	/**
+	 * @return the cache of corrections or null if every word is scored against the dictionary
+	 */
+	public CorrectionCache getCorrectionCache() {
+		return this.correctionCache;
+	}
+	
+	/**
+	 * The cache is kept across calls to spellcheckFile and can be shared with other spellcheckers
+	 * 
+	 * @param correctionCache the cache of corrections, or null to score every word against the dictionary
+	 */
+	public void setCorrectionCache(CorrectionCache correctionCache) {
+		this.correctionCache = correctionCache;
+	}
+	
+	/**
+	 * @return the cache file of corrections or null if none is open
+	 */
+	public PersistentCorrectionCache getPersistentCorrectionCache() {
+		return this.persistentCorrectionCache;
+	}
+	
+	/**
+	 * Corrections are looked up in and appended to the cache file. Each dictionary and group of settings gets its own
+	 * file, named after the path and a hash of the configuration key, so the settings should be chosen before it is opened.
+	 * 
+	 * @param cacheFilePath
+	 * @return true if able to open the cache file
+	 */
+	public boolean ableToOpenPersistentCorrectionCache(String cacheFilePath) {
+		
+		if (cacheFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		closePersistentCorrectionCache();
+		
+		try {
+			this.persistentCorrectionCache = new PersistentCorrectionCache(cacheFilePath, this.configurationKey);
+		} catch (IOException e) {
+			System.err.println("IOException thrown while opening correction cache file " + cacheFilePath + ".");
+			e.printStackTrace();
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Close the cache file of corrections if one is open
+	 */
+	public void closePersistentCorrectionCache() {
+		
+		if (this.persistentCorrectionCache == null) {
+			return;
+		}
+		
+		try {
+			this.persistentCorrectionCache.close();
+		} catch (IOException e) {
+			System.err.println("IOException thrown while closing correction cache file.");
+			e.printStackTrace();
+		}
+		
+		this.persistentCorrectionCache = null;
+	}
 
+	/**
+	 * @return the dictionary of nutrition terms
+	 */
+	public Dictionary getDictionary() {
+		return this.dictionary;
+	}
+	
+	/**
+	 * @return the way nutrition terms are scored
+	 */
+	public LevenshteinScoringMode getScoringMode() {
+		return this.scoringMode;
+	}
+	
+	/**
+	 * @param scoringMode the way nutrition terms are scored
+	 */
+	public void setScoringMode(LevenshteinScoringMode scoringMode) {
+		
+		if (scoringMode == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (scoringMode == LevenshteinScoringMode.BIT_PARALLEL && !hasUnitCosts()) {
+			throw new IllegalArgumentException("Bit parallel scoring needs insertion, deletion and substitution costs of 1.");
+		}
+		
+		if (scoringMode == LevenshteinScoringMode.BIT_PARALLEL && this.bitParallelPatterns == null) {
+			this.bitParallelPatterns = this.dictionary.getBitParallelPatterns();
+		}
+		
+		this.scoringMode = scoringMode;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the highest cost at which a nutrition term can be matched in banded scoring mode or Levenshtein automaton lookup mode
+	 */
+	public int getMaximumEditCost() {
+		return this.maximumEditCost;
+	}
+	
+	/**
+	 * @param maximumEditCost the highest cost at which a nutrition term can be matched in banded scoring mode or Levenshtein automaton lookup mode
+	 */
+	public void setMaximumEditCost(int maximumEditCost) {
+		
+		if (maximumEditCost < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.maximumEditCost = maximumEditCost;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the way nutrition terms to score are found
+	 */
+	public DictionaryLookupMode getLookupMode() {
+		return this.lookupMode;
+	}
+	
+	/**
+	 * The BK-tree is taken from the dictionary the first time it is selected, and only if the costs make the edit distance a metric
+	 * 
+	 * @param lookupMode the way nutrition terms to score are found
+	 */
+	public void setLookupMode(DictionaryLookupMode lookupMode) {
+		
+		if (lookupMode == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (lookupMode == DictionaryLookupMode.BK_TREE && this.burkhardKellerTree == null && isMetric()) {
+			this.burkhardKellerTree = this.dictionary.getBurkhardKellerTree(this.insertionCost, this.deletionCost, this.substitutionCost);
+		}
+		
+		if (lookupMode == DictionaryLookupMode.DELETION_INDEX && this.deletionIndex == null) {
+			this.deletionIndex = this.dictionary.getDeletionIndex(this.maximumDeletions);
+		}
+		
+		if (lookupMode == DictionaryLookupMode.TRIE && this.dictionaryTrie == null) {
+			this.dictionaryTrie = this.dictionary.getDictionaryTrie();
+		}
+		
+		if ((lookupMode == DictionaryLookupMode.AUTOMATON || lookupMode == DictionaryLookupMode.LEVENSHTEIN_AUTOMATON) && this.dictionaryAutomaton == null) {
+			this.dictionaryAutomaton = this.dictionary.getDictionaryAutomaton();
+		}
+		
+		this.lookupMode = lookupMode;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the most characters deleted from each nutrition term in the deletion index
+	 */
+	public int getMaximumDeletions() {
+		return this.maximumDeletions;
+	}
+	
+	/**
+	 * The deletion index is rebuilt if it is in use
+	 * 
+	 * @param maximumDeletions the most characters deleted from each nutrition term in the deletion index
+	 */
+	public void setMaximumDeletions(int maximumDeletions) {
+		
+		if (maximumDeletions < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.maximumDeletions = maximumDeletions;
+		this.deletionIndex = null;
+		updateConfigurationKey();
+		
+		if (this.lookupMode == DictionaryLookupMode.DELETION_INDEX) {
+			this.deletionIndex = this.dictionary.getDeletionIndex(this.maximumDeletions);
+		}
+	}
+	
+	/**
+	 * @return the number of nutrition terms sharing the most n-grams with a word that are scored, or 0 if the n-gram index is not used
+	 */
+	public int getNGramCandidateCount() {
+		return this.nGramCandidateCount;
+	}
+	
+	/**
+	 * Only the nutrition terms sharing the most character bigrams and trigrams with a word are scored, so a word whose 
+	 * closest term is not among them is matched to the closest candidate, or to none if no term shares an n-gram with it. 
+	 * The lookup mode is not used while the n-gram index is.
+	 * 
+	 * @param nGramCandidateCount the number of nutrition terms sharing the most n-grams with a word that are scored, or 0 to not use the n-gram index
+	 */
+	public void setNGramCandidateCount(int nGramCandidateCount) {
+		
+		if (nGramCandidateCount < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		if (nGramCandidateCount > 0 && this.nGramIndex == null) {
+			this.nGramIndex = this.dictionary.getNGramIndex();
+		}
+		
+		this.nGramCandidateCount = nGramCandidateCount;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the most the length of a nutrition term can differ from the length of a word for it to be an n-gram candidate
+	 */
+	public int getNGramMaximumLengthDifference() {
+		return this.nGramMaximumLengthDifference;
+	}
+	
+	/**
+	 * @param nGramMaximumLengthDifference the most the length of a nutrition term can differ from the length of a word for it to be an n-gram candidate
+	 */
+	public void setNGramMaximumLengthDifference(int nGramMaximumLengthDifference) {
+		
+		if (nGramMaximumLengthDifference < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.nGramMaximumLengthDifference = nGramMaximumLengthDifference;
+		updateConfigurationKey();
+	}
+	
+	/**
+	 * @return the number of threads spellcheckFile spreads the words over
+	 */
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+	
+	/**
+	 * @param threadCount the number of threads spellcheckFile spreads the words over
+	 */
+	public void setThreadCount(int threadCount) {
+		
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * @return the number of threads the dictionary is split over when a single word is spell checked
+	 */
+	public int getDictionaryScanThreadCount() {
+		return this.dictionaryScanPool == null ? 1 : this.dictionaryScanPool.getParallelism();
+	}
+	
+	/**
+	 * Splitting the dictionary lowers the time taken to correct a single word against a large dictionary
+	 * 
+	 * @param dictionaryScanThreadCount the number of threads the dictionary is split over when a single word is spell checked
+	 */
+	public void setDictionaryScanThreadCount(int dictionaryScanThreadCount) {
+		
+		if (dictionaryScanThreadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		
+		if (this.dictionaryScanPool != null) {
+			this.dictionaryScanPool.shutdown();
+		}
+		
+		this.dictionaryScanPool = dictionaryScanThreadCount > 1 ? new ForkJoinPool(dictionaryScanThreadCount) : null;
+	}
+	
+	/**
+	 * @return the number of table elements above which getEdits only keeps some rows of the table
+	 */
+	public long getCheckpointedEditsCellCount() {
+		return this.checkpointedEditsCellCount;
+	}
+	
+	/**
+	 * A full table keeps every element, which runs out of memory for long strings such as whole ingredient lists. Above 
+	 * the given number of elements, getEdits keeps about the square root of the rows and works the others out again 
+	 * while reading the edits back. The edits are the same either way.
+	 * 
+	 * @param checkpointedEditsCellCount the number of table elements above which getEdits only keeps some rows of the table
+	 */
+	public void setCheckpointedEditsCellCount(long checkpointedEditsCellCount) {
+		
+		if (checkpointedEditsCellCount < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+		
+		this.checkpointedEditsCellCount = checkpointedEditsCellCount;
+	}
+	
 	/**
 	 * Returns a list of edits that transform the source into the target
 	 * 
@@ -92,207 +534,317 @@ public class LEDSpellchecker {
 	 */
 	public String getEdits(String source, String target, int ins_cost, int del_cost, int subs_cost) {
 		
+		return getEditScript(source, target, ins_cost, del_cost, subs_cost).toString();
+	}
+	
+	/**
+	 * Returns the edits that transform the source into the target, without writing them out as text
+	 * 
+	 * @param source
+	 * @param target
+	 * @param ins_cost
+	 * @param del_cost
+	 * @param subs_cost
+	 * @return the edit script
+	 */
+	public EditScript getEditScript(String source, String target, int ins_cost, int del_cost, int subs_cost) {
+		
+		if (source == null || target == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
 		//Convert to lower case
 		source = source.toLowerCase();
 		target = target.toLowerCase();
 		
-		//Convert the source string into the target string
-		LevenshteinEditDistanceTable levenshteinEditDistanceTable = new LevenshteinEditDistanceTable(target, source, ins_cost, del_cost, subs_cost);
+		//Convert the source string into the target string, only keeping some rows of the table for long strings
+		BackTraceTable levenshteinEditDistanceTable = null;
+		if ((long) (target.length() + 1) * (source.length() + 1) > this.checkpointedEditsCellCount) {
+			levenshteinEditDistanceTable = new LevenshteinCheckpointedTable(target, source, ins_cost, del_cost, subs_cost);
+		} else {
+			levenshteinEditDistanceTable = new LevenshteinEditDistanceTable(target, source, ins_cost, del_cost, subs_cost);
+		}
 		levenshteinEditDistanceTable.convertSourceToTarget();
 		
-		//Start at the end of the table and store the edits into a stack
-		Deque<String> edits = new ArrayDeque<String>();
-		LevenshteinEditDistanceTableElement currentElement = levenshteinEditDistanceTable.getElement(levenshteinEditDistanceTable.getTargetSize() - 1, levenshteinEditDistanceTable.getSourceSize() - 1);
-		LevenshteinEditDistanceTableElement backTraceElement = null;
-		
-		//Loop through the best path and put it into a stack
-		String currentEdit = null;
+		//Start at the end of the table, so the edits are added from the last one
+		EditScript editScript = new EditScript(target.length() + source.length());
+		int currentColumn = target.length(), currentRow = source.length();
+		int currentCost = levenshteinEditDistanceTable.getAlignmentCost(currentColumn, currentRow), backTraceCost = 0;
+		byte backTraceDirection = BackTraceTable.BACK_TRACE_NONE;
 		
+		//Loop through the best path
 		while(true) {
 			
-			//Get the previous element corresponding to the minimum alignment distance
-			backTraceElement = currentElement.getBackTraceElement();
+			//Get the direction of the previous element corresponding to the minimum alignment distance
+			backTraceDirection = levenshteinEditDistanceTable.getBackTraceDirection(currentColumn, currentRow);
 			
 			//Stop if the end has been reached
-			if (backTraceElement == null) {
+			if (backTraceDirection == BackTraceTable.BACK_TRACE_NONE) {
 				break;
 			}
 			
 			//Store the operation performed to get from the back trace to the current element
-			if (currentElement.getSourceStringOffset() == backTraceElement.getSourceStringOffset()) {
+			if (backTraceDirection == BackTraceTable.BACK_TRACE_FROM_SAME_TARGET) {
 				//A character was inserted
-				currentEdit = constructEditString(ACTION_CODE_INSERT, 
-						                          levenshteinEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset() - 1),
-                                                  DUMMY_CHARACTER, 
-						                          currentElement.getTargetStringOffset(),
-						                          0,
-						                          currentElement.getAlignmentCost() - backTraceElement.getAlignmentCost());
+				backTraceCost = levenshteinEditDistanceTable.getAlignmentCost(currentColumn - 1, currentRow);
+				editScript.addInsertionBefore(target.charAt(currentColumn - 1), currentColumn, currentCost - backTraceCost);
+				--currentColumn;
 			} else {
-				if (currentElement.getTargetStringOffset() == backTraceElement.getTargetStringOffset()) {
+				if (backTraceDirection == BackTraceTable.BACK_TRACE_FROM_SAME_SOURCE) {
 					//A character was deleted
-					currentEdit = constructEditString(ACTION_CODE_DELETE, 
-                               						  levenshteinEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset() - 1),
-                                                      DUMMY_CHARACTER, 
-                                                      currentElement.getSourceStringOffset(),
-                                                      0,
-                                                      currentElement.getAlignmentCost() - backTraceElement.getAlignmentCost());
+					backTraceCost = levenshteinEditDistanceTable.getAlignmentCost(currentColumn, currentRow - 1);
+					editScript.addDeletionBefore(source.charAt(currentRow - 1), currentRow, currentCost - backTraceCost);
+					--currentRow;
 				} else {
-					if (currentElement.getAlignmentCost() == backTraceElement.getAlignmentCost()) {
-						//If cost did not change then the characters were the same
-						currentEdit = constructEditString(ACTION_CODE_MATCH, 
-                                						  levenshteinEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset() - 1),
-                                                          levenshteinEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset() - 1),
-                                                          currentElement.getSourceStringOffset(),
-                                                          currentElement.getTargetStringOffset(),
-                                                          currentElement.getAlignmentCost() - backTraceElement.getAlignmentCost());
-					} else {
-						//A character was substituted
-						currentEdit = constructEditString(ACTION_CODE_SUBSTITUTE, 
-      						                              levenshteinEditDistanceTable.getSource().charAt(currentElement.getSourceStringOffset() - 1),
-      						                              levenshteinEditDistanceTable.getTarget().charAt(currentElement.getTargetStringOffset() - 1),
-      						                              currentElement.getSourceStringOffset(),
-      						                              currentElement.getTargetStringOffset(),
-      						                              currentElement.getAlignmentCost() - backTraceElement.getAlignmentCost());
-					}
+					backTraceCost = levenshteinEditDistanceTable.getAlignmentCost(currentColumn - 1, currentRow - 1);
+					//If cost did not change then the characters were the same, else a character was substituted
+					editScript.addEditBefore(currentCost == backTraceCost ? EditScript.OPERATION_MATCH : EditScript.OPERATION_SUBSTITUTE, 
+							                 source.charAt(currentRow - 1),
+							                 target.charAt(currentColumn - 1),
+							                 currentRow,
+							                 currentColumn,
+							                 currentCost - backTraceCost);
+					--currentColumn;
+					--currentRow;
 				}
 			}
 			
-			edits.push(currentEdit);
-			
 			//Repeat the loop with the back trace element
-			currentElement = backTraceElement;
+			currentCost = backTraceCost;
 		}
 		
-		//Construct the edits string from the edits stack		
-		StringBuffer editString = new StringBuffer();
-		boolean firstTime = true;
-		while (!edits.isEmpty()) {
-			
-			currentEdit = edits.pop();
-			
-			if (firstTime) {
-				firstTime = false;
-			} else {
-				editString.append(COMMA_SEPARATOR);
-			}
-			
-			editString.append(currentEdit);
-		}
-				
-		return editString.toString();
+		return editScript;
 		
 	}
 	
 	/**
-	 * @param actionCode
-	 * @param sourceCharacter
-	 * @param targetCharacter
-	 * @param sourcePosition
-	 * @param targetPostion
-	 * @param cost
-	 * @return the edit string 
+	 * Words that were already corrected with the same settings are taken from the correction cache and then from the 
+	 * persistent correction cache, if there are any
+	 * 
+	 * @param word to be spell checked
+	 * @return the best matching nutrition term
 	 */
-	private String constructEditString(String actionCode, char sourceCharacter, char targetCharacter, int sourcePosition, int targetPostion, int cost) {
+	@Override
+	public String spellcheckWord(String word) {
 		
-		StringBuffer editString = new StringBuffer();
+		String correction = null;
 		
-		editString.append(actionCode).append("(");
+		if (this.correctionCache != null) {
+			correction = this.correctionCache.get(this.configurationKey, word);
+			if (correction != null) {
+				return correction;
+			}
+		}
 		
-		if (ACTION_CODE_DELETE.equals(actionCode) || ACTION_CODE_INSERT.equals(actionCode)) {
-			editString.append(SINGLE_QUOTE).append(sourceCharacter).append(SINGLE_QUOTE);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(sourcePosition);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(cost);
-		} else { //this means the action was match or substitute
-			editString.append(SINGLE_QUOTE).append(sourceCharacter).append(SINGLE_QUOTE);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(SINGLE_QUOTE).append(targetCharacter).append(SINGLE_QUOTE);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(sourcePosition);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(targetPostion);
-			editString.append(COMMA_SEPARATOR);
-			editString.append(cost);
+		//The cache file is only used with the settings it was opened with
+		PersistentCorrectionCache persistentCorrectionCache = this.persistentCorrectionCache;
+		if (persistentCorrectionCache != null && !persistentCorrectionCache.getConfigurationKey().equals(this.configurationKey)) {
+			persistentCorrectionCache = null;
 		}
 		
-		editString.append(")");
+		if (persistentCorrectionCache != null) {
+			correction = persistentCorrectionCache.get(word);
+		}
 		
-		return editString.toString();
-
+		if (correction == null) {
+			correction = findBestMatch(word);
+			if (persistentCorrectionCache != null) {
+				persistentCorrectionCache.put(word, correction);
+			}
+		}
+		
+		if (this.correctionCache != null) {
+			this.correctionCache.put(this.configurationKey, word, correction);
+		}
+		
+		return correction;
 	}
 	
 	/**
+	 * Only the edit distance of each nutrition term is needed to pick the best match, so the terms are scored
+	 * with two rolling rows rather than with full tables. Terms that cannot beat the best match so far are abandoned early.
+	 * 
 	 * @param word to be spell checked
-	 * @return the best matching nutrition term
+	 * @return the best matching nutrition term or NULL if there is none
 	 */
-	private String spellcheckWord(String word) {
-		
-		LevenshteinEditDistanceTable levenshteinEditDistanceTable = null;
-		List<LevenshteinEditDistanceTable> wordMatchingAttemptResults = null;
+	private String findBestMatch(String word) {
 		
-		wordMatchingAttemptResults = new ArrayList<LevenshteinEditDistanceTable>();
+		BestMatchSelector bestMatchSelector = new BestMatchSelector(false);
 		
-		//Find the LED between the word to spell check and each nutrition term
-		for (String nutritionTerm : this.nutritionDictionary) {
-			levenshteinEditDistanceTable = new LevenshteinEditDistanceTable(nutritionTerm, word, STANDARD_INSERTION_COST, STANDARD_DELETION_COST, STANDARD_SUBSTITUTION_COST);
-			levenshteinEditDistanceTable.convertSourceToTarget();
-			wordMatchingAttemptResults.add(levenshteinEditDistanceTable);
+		if (this.nGramCandidateCount > 0) {
+			//Only score the nutrition terms that share the most n-grams with the word
+			for (String nutritionTerm : this.nGramIndex.getCandidateTerms(word, this.nGramCandidateCount, this.nGramMaximumLengthDifference)) {
+				scoreNutritionTerm(word, nutritionTerm, bestMatchSelector);
+			}
+		} else if (this.lookupMode == DictionaryLookupMode.BK_TREE && this.burkhardKellerTree != null) {
+			//Let the BK-tree pick the nutrition terms worth scoring
+			this.burkhardKellerTree.findClosestTerms(word, 
+					                                 this.scoringMode == LevenshteinScoringMode.BANDED ? this.maximumEditCost : Integer.MAX_VALUE, 
+					                                 this.levenshteinEditDistanceScorers.get(), 
+					                                 bestMatchSelector);
+		} else if (this.lookupMode == DictionaryLookupMode.TRIE) {
+			//Score all nutrition terms in one traversal of the trie
+			this.dictionaryTrie.findClosestTerms(word, 
+					                             this.insertionCost, 
+					                             this.deletionCost, 
+					                             this.substitutionCost, 
+					                             this.scoringMode == LevenshteinScoringMode.BANDED ? this.maximumEditCost + 1 : Integer.MAX_VALUE, 
+					                             bestMatchSelector);
+		} else if (this.lookupMode == DictionaryLookupMode.AUTOMATON) {
+			//Score all nutrition terms in one traversal of the automaton
+			this.dictionaryAutomaton.findClosestTerms(word, 
+					                                  this.insertionCost, 
+					                                  this.deletionCost, 
+					                                  this.substitutionCost, 
+					                                  this.scoringMode == LevenshteinScoringMode.BANDED ? this.maximumEditCost + 1 : Integer.MAX_VALUE, 
+					                                  bestMatchSelector);
+		} else if (this.lookupMode == DictionaryLookupMode.LEVENSHTEIN_AUTOMATON) {
+			//Only follow the branches of the automaton that are within the maximum edit cost of the word
+			new LevenshteinAutomaton(word, 
+					                 this.insertionCost, 
+					                 this.deletionCost, 
+					                 this.substitutionCost, 
+					                 this.maximumEditCost).findClosestTerms(this.dictionaryAutomaton, bestMatchSelector);
+		} else if (this.lookupMode == DictionaryLookupMode.DELETION_INDEX && getCheapestEditCost() > 0) {
+			//Only score the nutrition terms that share a deletion variant with the word, in scan order so that ties are broken as in a scan
+			for (String nutritionTerm : this.deletionIndex.getCandidateTerms(word)) {
+				scoreNutritionTerm(word, nutritionTerm, bestMatchSelector);
+			}
+			
+			//Every term that is not a candidate is more single character edits away than the index covers, so it costs at least that many of the cheapest edit, and a candidate that costs as much might not be the best match
+			if (bestMatchSelector.isMatchFound() && 
+			    bestMatchSelector.getLowestMatchingCost() >= (this.maximumDeletions + 1) * getCheapestEditCost()) {
+				return NO_MATCH_FOUND;
+			}
+		} else if (this.dictionaryScanPool != null) {
+			//Find the LED between the word to spell check and each nutrition term, splitting the dictionary over the threads
+			bestMatchSelector = this.dictionaryScanPool.invoke(new LEDDictionaryScanTask(word, 0, this.dictionary.size()));
+		} else {
+			//Find the LED between the word to spell check and each nutrition term
+			for (String nutritionTerm : this.dictionary) {
+				scoreNutritionTerm(word, nutritionTerm, bestMatchSelector);
+			}
 		}
 		
 		//Return the closest nutrition term to the list of corrected words
-		 return getBestMatch(wordMatchingAttemptResults);
+		return bestMatchSelector.isMatchFound() ? bestMatchSelector.getBestMatch() : NO_MATCH_FOUND;
 	}
 	
 	/**
-	 * @param wordMatchingAttemptResults
-	 * @return the String with the best match
+	 * Moves along the first row or column of the table always cost 1, so the cheapest of those and the edit costs is
+	 * the least any single character edit can cost. When an edit is free no term can be ruled out by the number of
+	 * edits it takes, so the deletion index is not used and the whole dictionary is scanned.
+	 * 
+	 * @return the least a single character edit can cost
 	 */
-	private String getBestMatch(List<LevenshteinEditDistanceTable> wordMatchingAttemptResults) {
+	private int getCheapestEditCost() {
+		return Math.min(Math.min(Math.min(this.insertionCost, this.deletionCost), this.substitutionCost), 1);
+	}
+	
+	/**
+	 * Score a nutrition term with the current scoring mode and offer it to the best match selector
+	 * 
+	 * @param word to be spell checked
+	 * @param nutritionTerm
+	 * @param bestMatchSelector
+	 */
+	private void scoreNutritionTerm(String word, String nutritionTerm, BestMatchSelector bestMatchSelector) {
 		
-		int lowestMatchingCost = Integer.MAX_VALUE, lowestMatchingCostCandidate = 0, maximumAllowedCost = 0;
-		LevenshteinEditDistanceTableElement lowestMatchingCostCandidateElement = null;
-		String bestMatch = null;
-		boolean matchFound = false;
+		int maximumAllowedCost = 0, matchingCost = 0;
 		
-		//Loop through the candidates to find the best match
-		for (LevenshteinEditDistanceTable levenshteinEditDistanceTable : wordMatchingAttemptResults) {
-			
-			assert levenshteinEditDistanceTable != null;
-			
-			//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
-			maximumAllowedCost = levenshteinEditDistanceTable.getFullStringSubstitutionCost();
-			
-			//The lowest matching candidate is at the end of the table
-			lowestMatchingCostCandidateElement = levenshteinEditDistanceTable.getElement(levenshteinEditDistanceTable.getTargetSize() - 1, levenshteinEditDistanceTable.getSourceSize() - 1);
-			lowestMatchingCostCandidate = lowestMatchingCostCandidateElement.getAlignmentCost();
-			//Get the lowest match that is below the maximum allowed
-			if (lowestMatchingCostCandidate < lowestMatchingCost && lowestMatchingCostCandidate < maximumAllowedCost) {
-				lowestMatchingCost = lowestMatchingCostCandidate;
-				bestMatch = levenshteinEditDistanceTable.getTarget();
-				matchFound = true;
-			}
+		//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+		maximumAllowedCost = word.length() + nutritionTerm.length();
+		
+		//A nutrition term can only be the best match if it costs less than both the maximum allowed and the best match so far
+		if (this.scoringMode == LevenshteinScoringMode.BIT_PARALLEL) {
+			matchingCost = this.levenshteinBitParallelScorers.get().getEditDistance(this.bitParallelPatterns.get(nutritionTerm), word, Math.min(maximumAllowedCost, bestMatchSelector.getLowestMatchingCost()));
+		} else if (this.scoringMode == LevenshteinScoringMode.BANDED) {
+			matchingCost = this.levenshteinEditDistanceScorers.get().getBandedEditDistance(nutritionTerm, word, Math.min(Math.min(maximumAllowedCost, bestMatchSelector.getLowestMatchingCost()), this.maximumEditCost + 1));
+		} else {
+			matchingCost = this.levenshteinEditDistanceScorers.get().getEditDistance(nutritionTerm, word, Math.min(maximumAllowedCost, bestMatchSelector.getLowestMatchingCost()));
 		}
+		if (matchingCost == LevenshteinEditDistanceScorer.COST_LIMIT_EXCEEDED) {
+			return;
+		}
+		
+		bestMatchSelector.offer(nutritionTerm, matchingCost, maximumAllowedCost, Math.abs(word.length() - nutritionTerm.length()));
+	}
+	
+	/**
+	 * Scores a range of nutrition terms on a fork join pool
+	 */
+	private class LEDDictionaryScanTask extends DictionaryScanTask {
+		
+		private static final long serialVersionUID = 1L;
+		private String word;
+		
+		LEDDictionaryScanTask(String word, int firstTermIndex, int lastTermIndex) {
+			super(LEDSpellchecker.this.dictionary, firstTermIndex, lastTermIndex);
+			this.word = word;
+		}
+		
+		@Override
+		protected BestMatchSelector createBestMatchSelector() {
+			return new BestMatchSelector(false);
+		}
+		
+		@Override
+		protected void scoreNutritionTerm(String nutritionTerm, BestMatchSelector bestMatchSelector) {
+			LEDSpellchecker.this.scoreNutritionTerm(this.word, nutritionTerm, bestMatchSelector);
+		}
+		
+		@Override
+		protected DictionaryScanTask createSubtask(int firstTermIndex, int lastTermIndex) {
+			return new LEDDictionaryScanTask(this.word, firstTermIndex, lastTermIndex);
+		}
+	}
+	
+	/**
+	 * Moves along the first row and column of the table always cost 1, so the edit distance is only symmetric and 
+	 * obeys the triangle inequality when insertions and deletions cost 1 as well
+	 * 
+	 * @return true if the edit distance is a metric
+	 */
+	private boolean isMetric() {
 		
-		return matchFound == true ? bestMatch : NO_MATCH_FOUND;
+		return this.insertionCost == 1 && this.deletionCost == 1;
+	}
+	
+	/**
+	 * @return true if the insertion, deletion and substitution costs are all 1
+	 */
+	private boolean hasUnitCosts() {
 		
+		return this.insertionCost == 1 && 
+			   this.deletionCost == 1 && 
+			   this.substitutionCost == 1;
 	}
+	
+	/**
+	 * Corrections are cached under a key made of the dictionary and every setting that can change the best match
+	 */
+	private void updateConfigurationKey() {
+		
+		this.configurationKey = "LED " + this.insertionCost + " " + this.deletionCost + " " + this.substitutionCost + " " + 
+		                        this.scoringMode + " " + this.maximumEditCost + " " + this.lookupMode + " " + this.maximumDeletions + " " + 
+		                        this.nGramCandidateCount + " " + this.nGramMaximumLengthDifference + " " + this.dictionary.getContentKey();
+	}
+	
 	/**
 	 * @param inputFilePath
 	 * @return the list of words in the text file having one word per line
 	 */
 	private List<String> getWordsFromTextFile(String inputFilePath) {
 		
-		String words = null;
+		String word = null;
 		List<String> returnValue = new ArrayList<String>();
 		try {
-			BufferedReader textFileReader = new BufferedReader(new FileReader(inputFilePath));
-			words = textFileReader.readLine();
-			while(words != null) {
-				if (words.trim().length() > 0) {
-					returnValue.add(words.trim().toLowerCase());
-				}
-				words = textFileReader.readLine();
+			//Blank lines are skipped and the words come back trimmed and in lower case
+			MappedTextFileReader textFileReader = new MappedTextFileReader(inputFilePath);
+			word = textFileReader.readWord();
+			while(word != null) {
+				returnValue.add(word);
+				word = textFileReader.readWord();
 			}
 			textFileReader.close();
 		} catch (FileNotFoundException e) {
@@ -310,21 +862,17 @@ public class LEDSpellchecker {
 	}
 
 	/**
-	 * This method loads all nutrition terms from the dictionary file and puts them into the internal dictionary set
-	 * 
-	 * @return true if able to load dictionary
+	 * @param dictionarySnapshotFilePath the snapshot file, or null to read the dictionary text file
+	 * @return the dictionary
+	 * @throws IllegalStateException if the dictionary cannot be loaded
 	 */
-	private boolean ableToLoadDictionaryFromFileInputFile() {
+	private static Dictionary loadDictionary(String dictionarySnapshotFilePath) {
 		
-		List<String> nutritionTerms = getWordsFromTextFile(NUTRITION_DICTIONARY_FILE_NAME);
-		this.nutritionDictionary.addAll(nutritionTerms);
-		
-		if (this.nutritionDictionary.size() > 0) {
-			return true;
-		} else {
-			return false;
+		try {
+			return dictionarySnapshotFilePath == null ? Dictionary.load(NUTRITION_DICTIONARY_FILE_NAME) : Dictionary.loadSnapshot(dictionarySnapshotFilePath);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to load dictionary from " + (dictionarySnapshotFilePath == null ? NUTRITION_DICTIONARY_FILE_NAME : dictionarySnapshotFilePath) + ".", e);
 		}
-
 	}
 	
 	/**
@@ -0,0 +1,400 @@
+package menon.cs6890.assignment5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic automaton that accepts every string within a maximum edit cost of a word. A state is a row of the
+ * Levenshtein Edit Distance table with the word as the source, with every cost above the maximum capped at one more
+ * than the maximum. Capping keeps the number of distinct rows small, and it does not change any cost that is within the
+ * maximum, so the insertion, deletion and substitution costs can be anything. The first cost of a row is the number of
+ * characters read, capped the same way, so the next state only depends on the row and the character. States are only
+ * created the first time a transition reaches them.
+ *
+ * All characters that are not in the word lead to the same state, so the transitions of a state are kept for each
+ * distinct character of the word plus one for every other character. The automaton is walked together with a
+ * DictionaryAutomaton to find the nutrition terms within the maximum cost, without scoring any term that is further away.
+ */
+public class LevenshteinAutomaton {
+
+	public static final int DEAD_STATE = -1;
+	private static final int UNKNOWN_STATE = -2;
+	private static final int START_STATE = 0;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String word;
+	private int insertionCost;
+	private int deletionCost;
+	private int substitutionCost;
+	private int maximumCost;
+	private int cappedCost;
+	private int rowSize;
+	private char[] wordCharacters;
+	private int characterClassCount;
+	private int[] rows;
+	private int[] lowestCosts;
+	private int[] transitions;
+	private int stateCount;
+	private Map<Row, Integer> statesByRow;
+
+	/**
+	 * A row of capped costs used to find a state that already exists
+	 */
+	private static final class Row {
+
+		private int[] costs;
+		private int hashCode;
+
+		Row(int[] costs) {
+			this.costs = costs;
+			this.hashCode = Arrays.hashCode(costs);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Row && this.hashCode == ((Row) other).hashCode && Arrays.equals(this.costs, ((Row) other).costs);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param word the source of the edits
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 * @param maximumCost strings further than this from the word are not accepted
+	 */
+	public LevenshteinAutomaton(String word, int insertionCost, int deletionCost, int substitutionCost, int maximumCost) {
+
+		if (word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (insertionCost < 0 || deletionCost < 0 || substitutionCost < 0 || maximumCost < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		this.word = word;
+		this.insertionCost = insertionCost;
+		this.deletionCost = deletionCost;
+		this.substitutionCost = substitutionCost;
+		this.maximumCost = maximumCost;
+		this.cappedCost = maximumCost == Integer.MAX_VALUE ? Integer.MAX_VALUE : maximumCost + 1;
+		this.rowSize = word.length() + 1;
+
+		//The distinct characters of the word in order, so that a character's class is found by binary search
+		char[] characters = word.toCharArray();
+		Arrays.sort(characters);
+		int distinctCount = 0;
+		for (int index = 0; index < characters.length; ++index) {
+			if (index == 0 || characters[index] != characters[index - 1]) {
+				characters[distinctCount++] = characters[index];
+			}
+		}
+		this.wordCharacters = Arrays.copyOf(characters, distinctCount);
+		this.characterClassCount = distinctCount + 1;
+
+		this.rows = new int[INITIAL_CAPACITY * this.rowSize];
+		this.lowestCosts = new int[INITIAL_CAPACITY];
+		this.transitions = new int[INITIAL_CAPACITY * this.characterClassCount];
+		this.stateCount = 0;
+		this.statesByRow = new HashMap<Row, Integer>();
+
+		//The start state is the cost of moving along the word from the null character
+		int[] startRow = new int[this.rowSize];
+		for (int sourceStringIndex = 0; sourceStringIndex < this.rowSize; ++sourceStringIndex) {
+			startRow[sourceStringIndex] = Math.min(sourceStringIndex, this.cappedCost);
+		}
+		addState(startRow);
+	}
+
+	/**
+	 * @return the state before any character has been read
+	 */
+	public int getStartState() {
+		return START_STATE;
+	}
+
+	/**
+	 * @param state
+	 * @param character
+	 * @return the state after reading the character, or DEAD_STATE if no string starting this way can be accepted
+	 */
+	public int getNextState(int state, char character) {
+
+		if (state == DEAD_STATE) {
+			return DEAD_STATE;
+		}
+
+		int characterClass = Arrays.binarySearch(this.wordCharacters, character);
+		if (characterClass < 0) {
+			characterClass = this.characterClassCount - 1;
+		}
+
+		int transitionIndex = state * this.characterClassCount + characterClass;
+		if (this.transitions[transitionIndex] == UNKNOWN_STATE) {
+			//Adding a state can grow the transitions array, so the next state is found before it is stored
+			int nextState = computeNextState(state, characterClass);
+			this.transitions[transitionIndex] = nextState;
+		}
+
+		return this.transitions[transitionIndex];
+	}
+
+	/**
+	 * @param state
+	 * @return the edit cost of the string read so far, or a cost above the maximum if it is not accepted
+	 */
+	public int getCost(int state) {
+		return state == DEAD_STATE ? this.cappedCost : this.rows[state * this.rowSize + this.rowSize - 1];
+	}
+
+	/**
+	 * @param state
+	 * @return true if the string read so far is within the maximum cost of the word
+	 */
+	public boolean isAccepting(int state) {
+		return getCost(state) <= this.maximumCost;
+	}
+
+	/**
+	 * Costs never decrease as more characters are read, so this is a lower bound of the cost of any string that
+	 * starts with the string read so far
+	 *
+	 * @param state
+	 * @return the lowest cost in the row of the state
+	 */
+	public int getLowestCost(int state) {
+		return state == DEAD_STATE ? this.cappedCost : this.lowestCosts[state];
+	}
+
+	/**
+	 * @return the number of states created so far
+	 */
+	public int getStateCount() {
+		return this.stateCount;
+	}
+
+	/**
+	 * Walk the dictionary automaton and the Levenshtein automaton together, only following transitions that can
+	 * still lead to an accepted term
+	 *
+	 * @param dictionaryAutomaton
+	 * @return the terms within the maximum cost of the word in lexicographic order
+	 */
+	public List<String> findTerms(DictionaryAutomaton dictionaryAutomaton) {
+
+		List<String> terms = new ArrayList<String>();
+		intersect(dictionaryAutomaton, null, terms);
+
+		return terms;
+	}
+
+	/**
+	 * Offer every term within the maximum cost that costs less than the best match so far to the best match selector.
+	 * Branches that cannot beat the best match so far are skipped as well. Terms are offered with their scan index, and
+	 * a branch that can at best tie the best match is only skipped if the terms are scanned in lexicographic order and
+	 * the branch starts later than the best match.
+	 *
+	 * @param dictionaryAutomaton
+	 * @param bestMatchSelector
+	 */
+	public void findClosestTerms(DictionaryAutomaton dictionaryAutomaton, BestMatchSelector bestMatchSelector) {
+
+		if (bestMatchSelector == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		intersect(dictionaryAutomaton, bestMatchSelector, null);
+	}
+
+	/**
+	 * @param dictionaryAutomaton
+	 * @param bestMatchSelector receives the terms if not null
+	 * @param terms receives the terms if not null
+	 */
+	private void intersect(DictionaryAutomaton dictionaryAutomaton, BestMatchSelector bestMatchSelector, List<String> terms) {
+
+		if (dictionaryAutomaton == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		char[] prefix = new char[dictionaryAutomaton.getMaximumDepth()];
+		int[] pendingTransitions = new int[INITIAL_CAPACITY], pendingDepths = new int[INITIAL_CAPACITY], pendingStates = new int[INITIAL_CAPACITY], pendingTermNumbers = new int[INITIAL_CAPACITY];
+		int pendingCount = 0, transition = 0, depth = 0, dictionaryState = 0, levenshteinState = 0, termNumber = 0, lowestCost = 0, lowestMatchingCost = 0;
+		boolean scanOrderKept = dictionaryAutomaton.isScanOrderKept();
+
+		dictionaryState = dictionaryAutomaton.getRootState();
+		offerTerm(prefix, 0, START_STATE, dictionaryAutomaton.isFinalState(dictionaryState), dictionaryAutomaton, 0, bestMatchSelector, terms);
+
+		//Transitions are pushed in reverse so that they are followed in lexicographic order, each with the Levenshtein state before it and the number of the first term below it
+		levenshteinState = START_STATE;
+		termNumber = dictionaryAutomaton.getTermCount(dictionaryState);
+		for (transition = dictionaryAutomaton.getTransitionEnd(dictionaryState) - 1; transition >= dictionaryAutomaton.getFirstTransition(dictionaryState); --transition) {
+			if (pendingCount == pendingTransitions.length) {
+				pendingTransitions = Arrays.copyOf(pendingTransitions, pendingCount * 2);
+				pendingDepths = Arrays.copyOf(pendingDepths, pendingCount * 2);
+				pendingStates = Arrays.copyOf(pendingStates, pendingCount * 2);
+				pendingTermNumbers = Arrays.copyOf(pendingTermNumbers, pendingCount * 2);
+			}
+			termNumber -= dictionaryAutomaton.getTermCount(dictionaryAutomaton.getTransitionTarget(transition));
+			pendingTransitions[pendingCount] = transition;
+			pendingDepths[pendingCount] = 0;
+			pendingStates[pendingCount] = levenshteinState;
+			pendingTermNumbers[pendingCount++] = termNumber;
+		}
+
+		while (pendingCount > 0) {
+
+			transition = pendingTransitions[--pendingCount];
+			depth = pendingDepths[pendingCount];
+			termNumber = pendingTermNumbers[pendingCount];
+			prefix[depth] = dictionaryAutomaton.getTransitionLabel(transition);
+			levenshteinState = getNextState(pendingStates[pendingCount], prefix[depth]);
+			dictionaryState = dictionaryAutomaton.getTransitionTarget(transition);
+			++depth;
+
+			//Only a term within the maximum and, when looking for the closest term, no worse than the best match so far is of interest
+			lowestCost = getLowestCost(levenshteinState);
+			if (lowestCost >= this.cappedCost) {
+				continue;
+			}
+			if (bestMatchSelector != null) {
+				lowestMatchingCost = bestMatchSelector.getLowestMatchingCost();
+				if (lowestCost > lowestMatchingCost ||
+				    (lowestCost == lowestMatchingCost && !scanOrderKept && termNumber > bestMatchSelector.getBestScanIndex())) {
+					continue;
+				}
+			}
+
+			offerTerm(prefix, depth, levenshteinState, dictionaryAutomaton.isFinalState(dictionaryState) && getCost(levenshteinState) < this.cappedCost, dictionaryAutomaton, termNumber, bestMatchSelector, terms);
+
+			termNumber += dictionaryAutomaton.getTermCount(dictionaryState);
+			for (transition = dictionaryAutomaton.getTransitionEnd(dictionaryState) - 1; transition >= dictionaryAutomaton.getFirstTransition(dictionaryState); --transition) {
+				if (pendingCount == pendingTransitions.length) {
+					pendingTransitions = Arrays.copyOf(pendingTransitions, pendingCount * 2);
+					pendingDepths = Arrays.copyOf(pendingDepths, pendingCount * 2);
+					pendingStates = Arrays.copyOf(pendingStates, pendingCount * 2);
+					pendingTermNumbers = Arrays.copyOf(pendingTermNumbers, pendingCount * 2);
+				}
+				termNumber -= dictionaryAutomaton.getTermCount(dictionaryAutomaton.getTransitionTarget(transition));
+				pendingTransitions[pendingCount] = transition;
+				pendingDepths[pendingCount] = depth;
+				pendingStates[pendingCount] = levenshteinState;
+				pendingTermNumbers[pendingCount++] = termNumber;
+			}
+		}
+	}
+
+	/**
+	 * @param prefix
+	 * @param depth
+	 * @param levenshteinState
+	 * @param accepted true if a term ends here and is within the limit
+	 * @param dictionaryAutomaton
+	 * @param termNumber of the term in the dictionary automaton
+	 * @param bestMatchSelector
+	 * @param terms
+	 */
+	private void offerTerm(char[] prefix, int depth, int levenshteinState, boolean accepted, DictionaryAutomaton dictionaryAutomaton, int termNumber, BestMatchSelector bestMatchSelector, List<String> terms) {
+
+		if (!accepted || !isAccepting(levenshteinState)) {
+			return;
+		}
+
+		String term = new String(prefix, 0, depth);
+
+		if (terms != null) {
+			terms.add(term);
+		}
+
+		//The maximum allowed cost is the cost of replacing the source string with the target by removing all source characters
+		if (bestMatchSelector != null) {
+			bestMatchSelector.offer(term, getCost(levenshteinState), this.word.length() + depth, Math.abs(this.word.length() - depth), dictionaryAutomaton.getScanIndex(termNumber));
+		}
+	}
+
+	/**
+	 * @param state
+	 * @param characterClass
+	 * @return the state for the next row
+	 */
+	private int computeNextState(int state, int characterClass) {
+
+		int[] nextRow = new int[this.rowSize];
+		int rowOffset = state * this.rowSize, distanceFromDiagonal = 0;
+		boolean otherCharacter = characterClass == this.characterClassCount - 1;
+		char character = otherCharacter ? 0 : this.wordCharacters[characterClass];
+		boolean dead = true;
+
+		//The first column is the cost of moving along the string read from the null character, which the row also holds until it is capped
+		nextRow[0] = cappedSum(this.rows[rowOffset], 1);
+		dead = nextRow[0] >= this.cappedCost;
+
+		for (int sourceStringIndex = 1; sourceStringIndex < this.rowSize; ++sourceStringIndex) {
+
+			if (!otherCharacter && character == this.word.charAt(sourceStringIndex - 1)) {
+				distanceFromDiagonal = this.rows[rowOffset + sourceStringIndex - 1];
+			} else {
+				distanceFromDiagonal = cappedSum(this.rows[rowOffset + sourceStringIndex - 1], this.substitutionCost);
+			}
+
+			nextRow[sourceStringIndex] = Math.min(Math.min(cappedSum(this.rows[rowOffset + sourceStringIndex], this.insertionCost),
+					                                       cappedSum(nextRow[sourceStringIndex - 1], this.deletionCost)),
+					                              distanceFromDiagonal);
+			dead = dead && nextRow[sourceStringIndex] >= this.cappedCost;
+		}
+
+		if (dead) {
+			return DEAD_STATE;
+		}
+
+		Integer existingState = this.statesByRow.get(new Row(nextRow));
+		return existingState == null ? addState(nextRow) : existingState.intValue();
+	}
+
+	/**
+	 * @param row
+	 * @return the new state
+	 */
+	private int addState(int[] row) {
+
+		if (this.stateCount == this.lowestCosts.length) {
+			int capacity = this.stateCount * 2;
+			this.rows = Arrays.copyOf(this.rows, capacity * this.rowSize);
+			this.lowestCosts = Arrays.copyOf(this.lowestCosts, capacity);
+			this.transitions = Arrays.copyOf(this.transitions, capacity * this.characterClassCount);
+		}
+
+		int state = this.stateCount++;
+		int lowestCost = this.cappedCost;
+		for (int sourceStringIndex = 0; sourceStringIndex < this.rowSize; ++sourceStringIndex) {
+			this.rows[state * this.rowSize + sourceStringIndex] = row[sourceStringIndex];
+			lowestCost = Math.min(lowestCost, row[sourceStringIndex]);
+		}
+		this.lowestCosts[state] = lowestCost;
+		Arrays.fill(this.transitions, state * this.characterClassCount, (state + 1) * this.characterClassCount, UNKNOWN_STATE);
+		this.statesByRow.put(new Row(row), state);
+
+		return state;
+	}
+
+	/**
+	 * @param cost
+	 * @param editCost
+	 * @return the sum capped at one more than the maximum cost
+	 */
+	private int cappedSum(int cost, int editCost) {
+		return (int) Math.min((long) cost + editCost, this.cappedCost);
+	}
+
+}
@@ -0,0 +1,136 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Computes the Levenshtein Edit Distance for unit insertion, deletion and substitution costs using the bit vector 
+ * algorithm of Myers, extended to patterns longer than 64 characters by Hyyro. Each column of the table is 
+ * represented by bit vectors of the vertical differences between adjacent elements, so a column of up to 64 
+ * elements is computed with a handful of long operations. The bit vectors are reused between calls, so an instance 
+ * must not be shared between threads.
+ */
+public class LevenshteinBitParallelScorer {
+	
+	private long[] positiveVerticalDifferences;
+	private long[] negativeVerticalDifferences;
+	
+	/**
+	 * Constructor
+	 */
+	public LevenshteinBitParallelScorer() {
+		
+		this.positiveVerticalDifferences = new long[0];
+		this.negativeVerticalDifferences = new long[0];
+	}
+	
+	/**
+	 * Returns the same cost as the last element of a LevenshteinEditDistanceTable with unit costs, but only if it
+	 * is below the cost limit. The distance changes by at most one per remaining text character, so scoring is 
+	 * abandoned as soon as the limit cannot be beaten.
+	 * 
+	 * @param pattern the bit masks of the target string
+	 * @param text the source string
+	 * @param costLimit
+	 * @return the edit distance or LevenshteinEditDistanceScorer.COST_LIMIT_EXCEEDED if it is not below the cost limit
+	 */
+	public int getEditDistance(BitParallelPattern pattern, String text, int costLimit) {
+		
+		if (pattern == null || text == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		int patternLength = pattern.getPattern().length(), textLength = text.length();
+		if (Math.abs(patternLength - textLength) >= costLimit) {
+			return LevenshteinEditDistanceScorer.COST_LIMIT_EXCEEDED;
+		}
+		
+		//An empty pattern costs one insertion per text character
+		if (patternLength == 0) {
+			return textLength;
+		}
+		
+		int blockCount = pattern.getBlockCount();
+		ensureBlockCapacity(blockCount);
+		long[] positiveVerticalDifferences = this.positiveVerticalDifferences, negativeVerticalDifferences = this.negativeVerticalDifferences;
+		
+		//In the first column each element is one more than the element above it
+		for (int block = 0; block < blockCount; ++block) {
+			positiveVerticalDifferences[block] = -1L;
+			negativeVerticalDifferences[block] = 0L;
+		}
+		
+		long lastBlockHighBit = 1L << ((patternLength - 1) % BitParallelPattern.BLOCK_SIZE);
+		long highBit = 0L, matchMask = 0L, verticalChange = 0L, horizontalChange = 0L, positiveHorizontalDifferences = 0L, negativeHorizontalDifferences = 0L;
+		long positiveVerticalDifference = 0L, negativeVerticalDifference = 0L;
+		int score = patternLength, horizontalDifferenceIn = 0, horizontalDifferenceOut = 0;
+		char textCharacter;
+		
+		for (int textIndex = 0; textIndex < textLength; ++textIndex) {
+			
+			textCharacter = text.charAt(textIndex);
+			
+			//In the first row each element is one more than the element to its left
+			horizontalDifferenceIn = 1;
+			
+			for (int block = 0; block < blockCount; ++block) {
+				
+				positiveVerticalDifference = positiveVerticalDifferences[block];
+				negativeVerticalDifference = negativeVerticalDifferences[block];
+				highBit = block == blockCount - 1 ? lastBlockHighBit : Long.MIN_VALUE;
+				
+				matchMask = pattern.getMatchMask(textCharacter, block);
+				verticalChange = matchMask | negativeVerticalDifference;
+				if (horizontalDifferenceIn < 0) {
+					matchMask |= 1L;
+				}
+				horizontalChange = (((matchMask & positiveVerticalDifference) + positiveVerticalDifference) ^ positiveVerticalDifference) | matchMask;
+				positiveHorizontalDifferences = negativeVerticalDifference | ~(horizontalChange | positiveVerticalDifference);
+				negativeHorizontalDifferences = positiveVerticalDifference & horizontalChange;
+				
+				//The horizontal difference at the bottom of the block is carried into the next block
+				horizontalDifferenceOut = 0;
+				if ((positiveHorizontalDifferences & highBit) != 0) {
+					horizontalDifferenceOut = 1;
+				}
+				if ((negativeHorizontalDifferences & highBit) != 0) {
+					horizontalDifferenceOut = -1;
+				}
+				
+				positiveHorizontalDifferences <<= 1;
+				negativeHorizontalDifferences <<= 1;
+				if (horizontalDifferenceIn < 0) {
+					negativeHorizontalDifferences |= 1L;
+				} else if (horizontalDifferenceIn > 0) {
+					positiveHorizontalDifferences |= 1L;
+				}
+				
+				positiveVerticalDifferences[block] = negativeHorizontalDifferences | ~(verticalChange | positiveHorizontalDifferences);
+				negativeVerticalDifferences[block] = positiveHorizontalDifferences & verticalChange;
+				
+				horizontalDifferenceIn = horizontalDifferenceOut;
+			}
+			
+			//The horizontal difference out of the last block is the change in the distance for this text character
+			score += horizontalDifferenceOut;
+			
+			//Abandon the scoring if the remaining text characters cannot bring the distance below the limit
+			if (score - (textLength - textIndex - 1) >= costLimit) {
+				return LevenshteinEditDistanceScorer.COST_LIMIT_EXCEEDED;
+			}
+		}
+		
+		return score < costLimit ? score : LevenshteinEditDistanceScorer.COST_LIMIT_EXCEEDED;
+	}
+	
+	/**
+	 * Grow the bit vectors if they have fewer blocks than required
+	 * 
+	 * @param blockCount
+	 */
+	private void ensureBlockCapacity(int blockCount) {
+		
+		if (this.positiveVerticalDifferences.length < blockCount) {
+			this.positiveVerticalDifferences = new long[blockCount];
+			this.negativeVerticalDifferences = new long[blockCount];
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Levenshtein Edit Distance table that only keeps some of its rows, for strings too long for a full table
+ */
+public class LevenshteinCheckpointedTable extends CheckpointedBackTraceTable {
+
+	private String target;
+	private String source;
+	private int insertionCost;
+	private int deletionCost;
+	private int substitutionCost;
+
+	/**
+	 * Constructor takes the target and source strings. As in the full table, the first row and column are for the null
+	 * element at the beginning of each string.
+	 *
+	 * @param target
+	 * @param source
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 */
+	public LevenshteinCheckpointedTable(String target, String source, int insertionCost, int deletionCost, int substitutionCost) {
+
+		super(getLength(source) + 1, getLength(target) + 1);
+
+		this.target = target;
+		this.source = source;
+		this.insertionCost = insertionCost;
+		this.deletionCost = deletionCost;
+		this.substitutionCost = substitutionCost;
+	}
+
+	/**
+	 * Distance between the null character in source string and each element in the target string is the cost of inserting
+	 * each target string character
+	 */
+	@Override
+	protected void computeFirstRow(int[] costs, int offset) {
+
+		for (int targetStringIndex = 0; targetStringIndex <= this.target.length(); ++targetStringIndex) {
+			costs[offset + targetStringIndex] = targetStringIndex;
+		}
+	}
+
+	/**
+	 * Fill in a row the same way as the full table
+	 */
+	@Override
+	protected void computeNextRow(int row, int[] costs, int previousOffset, int offset) {
+
+		char sourceCharacter = this.source.charAt(row - 1);
+		int distanceFromPreviousInSourceAndTarget = 0;
+
+		costs[offset] = row;
+		for (int targetStringIndex = 1; targetStringIndex <= this.target.length(); ++targetStringIndex) {
+
+			if (sourceCharacter == this.target.charAt(targetStringIndex - 1)) {
+				//If same character in source and target, there is no cost
+				distanceFromPreviousInSourceAndTarget = costs[previousOffset + targetStringIndex - 1];
+			} else {
+				//Add the cost of substitution
+				distanceFromPreviousInSourceAndTarget = costs[previousOffset + targetStringIndex - 1] + this.substitutionCost;
+			}
+
+			costs[offset + targetStringIndex] = Math.min(Math.min(costs[offset + targetStringIndex - 1] + this.insertionCost,
+					costs[previousOffset + targetStringIndex] + this.deletionCost), distanceFromPreviousInSourceAndTarget);
+		}
+	}
+
+	/**
+	 * @param string
+	 * @return the length of the string
+	 */
+	private static int getLength(String string) {
+
+		if (string == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		return string.length();
+	}
+
+}
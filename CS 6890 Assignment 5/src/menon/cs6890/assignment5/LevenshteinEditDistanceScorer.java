@@ -0,0 +1,290 @@
+package menon.cs6890.assignment5;
+
+/**
+ * Computes only the Levenshtein Edit Distance between a target and a source string. Instead of a full table
+ * with back traces, two rolling rows as long as the shorter string are used. The rows are reused between calls,
+ * so an instance must not be shared between threads.
+ */
+public class LevenshteinEditDistanceScorer {
+
+	public static final int COST_LIMIT_EXCEEDED = Integer.MAX_VALUE;
+	private static final int OUTSIDE_BAND_COST = Integer.MAX_VALUE / 2;
+
+	private int insertionCost;
+	private int deletionCost;
+	private int substitutionCost;
+	private int[] previousRow;
+	private int[] currentRow;
+
+	/**
+	 * Constructor
+	 *
+	 * @param insertionCost
+	 * @param deletionCost
+	 * @param substitutionCost
+	 */
+	public LevenshteinEditDistanceScorer(int insertionCost, int deletionCost, int substitutionCost) {
+
+		this.insertionCost = insertionCost;
+		this.deletionCost = deletionCost;
+		this.substitutionCost = substitutionCost;
+		this.previousRow = new int[0];
+		this.currentRow = new int[0];
+	}
+
+	/**
+	 * Returns the same cost as the last element of a LevenshteinEditDistanceTable for the same strings and costs
+	 *
+	 * @param target
+	 * @param source
+	 * @return the edit distance
+	 */
+	public int getEditDistance(String target, String source) {
+
+		return getEditDistance(target, source, COST_LIMIT_EXCEEDED);
+	}
+
+	/**
+	 * Returns the edit distance only if it is below the cost limit. Scoring is abandoned as soon as the length
+	 * difference of the strings or the lowest cost in a row shows that the limit cannot be beaten. Costs never
+	 * decrease from one row to the next, so the lowest cost in a row is a lower bound of the edit distance.
+	 *
+	 * @param target
+	 * @param source
+	 * @param costLimit
+	 * @return the edit distance or COST_LIMIT_EXCEEDED if it is not below the cost limit
+	 */
+	public int getEditDistance(String target, String source, int costLimit) {
+
+		if (target == null || source == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (getLengthDifferenceLowerBound(target.length(), source.length()) >= costLimit) {
+			return COST_LIMIT_EXCEEDED;
+		}
+
+		if (target.length() <= source.length()) {
+			//The rows run along the shorter target string
+			return getEditDistance(target, source, this.insertionCost, this.deletionCost, costLimit);
+		} else {
+			//Transpose the table so that the rows run along the shorter source string. This swaps the insertion and deletion costs.
+			return getEditDistance(source, target, this.deletionCost, this.insertionCost, costLimit);
+		}
+	}
+
+	/**
+	 * Returns the edit distance only if it is below the cost limit, computing only the elements that lie within 
+	 * a band of diagonals around the main diagonal (Ukkonen). An element k diagonals away from the main diagonal 
+	 * needs at least k insertions or deletions, so elements further away than the cost limit allows are skipped.
+	 *
+	 * @param target
+	 * @param source
+	 * @param costLimit
+	 * @return the edit distance or COST_LIMIT_EXCEEDED if it is not below the cost limit
+	 */
+	public int getBandedEditDistance(String target, String source, int costLimit) {
+
+		if (target == null || source == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (costLimit <= 0 || getLengthDifferenceLowerBound(target.length(), source.length()) >= costLimit) {
+			return COST_LIMIT_EXCEEDED;
+		}
+
+		//Number of diagonals on either side of the main diagonal that can still be below the cost limit
+		int cheapestInsertionOrDeletion = Math.min(Math.min(this.insertionCost, this.deletionCost), 1);
+		int bandWidth = Math.max(target.length(), source.length());
+		if (cheapestInsertionOrDeletion > 0) {
+			bandWidth = Math.min(bandWidth, (costLimit - 1) / cheapestInsertionOrDeletion);
+		}
+
+		if (target.length() <= source.length()) {
+			//The rows run along the shorter target string
+			return getBandedEditDistance(target, source, this.insertionCost, this.deletionCost, costLimit, bandWidth);
+		} else {
+			//Transpose the table so that the rows run along the shorter source string. This swaps the insertion and deletion costs.
+			return getBandedEditDistance(source, target, this.deletionCost, this.insertionCost, costLimit, bandWidth);
+		}
+	}
+
+	/**
+	 * Every character of length difference has to be inserted or deleted. Moves along the first row or column of 
+	 * the table always cost 1, so the cheapest of those and the insertion and deletion costs is used.
+	 *
+	 * @param targetLength
+	 * @param sourceLength
+	 * @return a lower bound of the edit distance between strings of the given lengths
+	 */
+	public int getLengthDifferenceLowerBound(int targetLength, int sourceLength) {
+
+		return Math.abs(targetLength - sourceLength) * Math.min(Math.min(this.insertionCost, this.deletionCost), 1);
+	}
+
+	/**
+	 * @param columnString the string along each row
+	 * @param rowString the string down the rows
+	 * @param sameRowCost cost of moving from the previous element on the same row
+	 * @param previousRowCost cost of moving from the element above on the previous row
+	 * @param costLimit
+	 * @return the edit distance or COST_LIMIT_EXCEEDED if it is not below the cost limit
+	 */
+	private int getEditDistance(String columnString, String rowString, int sameRowCost, int previousRowCost, int costLimit) {
+
+		int rowSize = columnString.length() + 1;
+		ensureRowCapacity(rowSize);
+
+		int[] previousRow = this.previousRow, currentRow = this.currentRow, swapRow = null;
+
+		//The first row is the cost of moving along the column string from the null character
+		for (int columnIndex = 0; columnIndex < rowSize; ++columnIndex) {
+			previousRow[columnIndex] = columnIndex;
+		}
+
+		int distanceFromPreviousInRow = 0, distanceFromPreviousInColumn = 0, distanceFromDiagonal = 0, lowestCostInRow = 0;
+		char rowCharacter;
+
+		for (int rowIndex = 1; rowIndex <= rowString.length(); ++rowIndex) {
+
+			rowCharacter = rowString.charAt(rowIndex - 1);
+
+			//The first column is the cost of moving along the row string from the null character
+			currentRow[0] = rowIndex;
+			lowestCostInRow = rowIndex;
+
+			for (int columnIndex = 1; columnIndex < rowSize; ++columnIndex) {
+
+				distanceFromPreviousInColumn = previousRow[columnIndex] + previousRowCost;
+				distanceFromPreviousInRow = currentRow[columnIndex - 1] + sameRowCost;
+
+				if (rowCharacter == columnString.charAt(columnIndex - 1)) {
+					distanceFromDiagonal = previousRow[columnIndex - 1];
+				} else {
+					distanceFromDiagonal = previousRow[columnIndex - 1] + this.substitutionCost;
+				}
+
+				currentRow[columnIndex] = Math.min(Math.min(distanceFromPreviousInRow, distanceFromPreviousInColumn), distanceFromDiagonal);
+				lowestCostInRow = Math.min(lowestCostInRow, currentRow[columnIndex]);
+			}
+
+			//Abandon the scoring if no element in the row is below the limit
+			if (lowestCostInRow >= costLimit) {
+				return COST_LIMIT_EXCEEDED;
+			}
+
+			//The current row becomes the previous row for the next iteration
+			swapRow = previousRow;
+			previousRow = currentRow;
+			currentRow = swapRow;
+		}
+
+		return previousRow[rowSize - 1] < costLimit ? previousRow[rowSize - 1] : COST_LIMIT_EXCEEDED;
+
+	}
+
+	/**
+	 * @param columnString the string along each row
+	 * @param rowString the string down the rows
+	 * @param sameRowCost cost of moving from the previous element on the same row
+	 * @param previousRowCost cost of moving from the element above on the previous row
+	 * @param costLimit
+	 * @param bandWidth number of diagonals computed on either side of the main diagonal
+	 * @return the edit distance or COST_LIMIT_EXCEEDED if it is not below the cost limit
+	 */
+	private int getBandedEditDistance(String columnString, String rowString, int sameRowCost, int previousRowCost, int costLimit, int bandWidth) {
+
+		int rowSize = columnString.length() + 1;
+		ensureRowCapacity(rowSize);
+
+		int[] previousRow = this.previousRow, currentRow = this.currentRow, swapRow = null;
+
+		//The first row is the cost of moving along the column string from the null character. The element just
+		//outside the band is marked so that the next row does not read a stale value.
+		int lastColumnInBand = Math.min(rowSize - 1, bandWidth);
+		for (int columnIndex = 0; columnIndex <= lastColumnInBand; ++columnIndex) {
+			previousRow[columnIndex] = columnIndex;
+		}
+		if (lastColumnInBand + 1 < rowSize) {
+			previousRow[lastColumnInBand + 1] = OUTSIDE_BAND_COST;
+		}
+
+		int distanceFromPreviousInRow = 0, distanceFromPreviousInColumn = 0, distanceFromDiagonal = 0, lowestCostInRow = 0;
+		int firstColumnInBand = 0;
+		char rowCharacter;
+
+		for (int rowIndex = 1; rowIndex <= rowString.length(); ++rowIndex) {
+
+			rowCharacter = rowString.charAt(rowIndex - 1);
+			firstColumnInBand = Math.max(1, rowIndex - bandWidth);
+			lastColumnInBand = Math.min(rowSize - 1, rowIndex + bandWidth);
+
+			//The first column is the cost of moving along the row string from the null character, when it is inside the band
+			if (rowIndex <= bandWidth) {
+				currentRow[0] = rowIndex;
+				lowestCostInRow = rowIndex;
+			} else {
+				currentRow[firstColumnInBand - 1] = OUTSIDE_BAND_COST;
+				lowestCostInRow = OUTSIDE_BAND_COST;
+			}
+
+			for (int columnIndex = firstColumnInBand; columnIndex <= lastColumnInBand; ++columnIndex) {
+
+				distanceFromPreviousInColumn = previousRow[columnIndex] + previousRowCost;
+				distanceFromPreviousInRow = currentRow[columnIndex - 1] + sameRowCost;
+
+				if (rowCharacter == columnString.charAt(columnIndex - 1)) {
+					distanceFromDiagonal = previousRow[columnIndex - 1];
+				} else {
+					distanceFromDiagonal = previousRow[columnIndex - 1] + this.substitutionCost;
+				}
+
+				currentRow[columnIndex] = Math.min(Math.min(Math.min(distanceFromPreviousInRow, distanceFromPreviousInColumn), distanceFromDiagonal), OUTSIDE_BAND_COST);
+				lowestCostInRow = Math.min(lowestCostInRow, currentRow[columnIndex]);
+			}
+
+			if (lastColumnInBand + 1 < rowSize) {
+				currentRow[lastColumnInBand + 1] = OUTSIDE_BAND_COST;
+			}
+
+			//Abandon the scoring if no element in the row is below the limit
+			if (lowestCostInRow >= costLimit) {
+				return COST_LIMIT_EXCEEDED;
+			}
+
+			//The current row becomes the previous row for the next iteration
+			swapRow = previousRow;
+			previousRow = currentRow;
+			currentRow = swapRow;
+		}
+
+		return previousRow[rowSize - 1] < costLimit ? previousRow[rowSize - 1] : COST_LIMIT_EXCEEDED;
+
+	}
+
+	/**
+	 * Grow the rolling rows if they are shorter than the required size
+	 *
+	 * @param rowSize
+	 */
+	private void ensureRowCapacity(int rowSize) {
+
+		if (this.previousRow.length < rowSize) {
+			this.previousRow = new int[rowSize];
+			this.currentRow = new int[rowSize];
+		}
+	}
+
+	public int getInsertionCost() {
+		return insertionCost;
+	}
+
+	public int getDeletionCost() {
+		return deletionCost;
+	}
+
+	public int getSubstitutionCost() {
+		return substitutionCost;
+	}
+
+}
@@ -8,8 +8,10 @@ import java.util.List;
  * Stores the Levenshtein Edit Distance table elements that can be accessed
  * through row and column coordinates
  */
-public class LevenshteinEditDistanceTable {
+public class LevenshteinEditDistanceTable extends BackTraceTable {
 	
+	private int[] alignmentCosts;
+	private byte[] backTraceDirections;
 	private ArrayList<LevenshteinEditDistanceTableElement> table;
 	private String target;
 	private int targetSize;
@@ -20,7 +22,8 @@ public class LevenshteinEditDistanceTable {
 	private int substitutionCost;
 	
 	/**
-	 * Constructor takes the target and source strings
+	 * Constructor takes the target and source strings. The table is held in flat primitive arrays, one alignment cost 
+	 * and one back trace direction code per cell. Table element objects are only created if the table view is requested.
 	 * 
 	 * @param target
 	 * @param source
@@ -41,212 +44,193 @@ public class LevenshteinEditDistanceTable {
 		this.targetSize = this.target.length() + 1;
 		this.sourceSize = this.source.length() + 1;
 		
-		this.table = new ArrayList<LevenshteinEditDistanceTableElement>(targetSize * sourceSize);
-		for (int sourceStringIndex = 0; sourceStringIndex < this.sourceSize; ++sourceStringIndex) {
-			for (int targetStringIndex = 0; targetStringIndex < this.targetSize; ++targetStringIndex) {
-				this.table.add(new LevenshteinEditDistanceTableElement(null, null, null, 0, sourceStringIndex, targetStringIndex));
-			}
-		}
+		this.alignmentCosts = new int[this.targetSize * this.sourceSize];
+		this.backTraceDirections = new byte[this.targetSize * this.sourceSize];
 	}
 	
 	/**
 	 * Convert the source string to the target string and update the LED table
 	 */
+	@Override
 	public void convertSourceToTarget() {
 		
-		LevenshteinEditDistanceTableElement levenshteinEditDistanceTableElement = null, currentLevenshteinEditDistanceTableElement = null;
+		int[] alignmentCosts = this.alignmentCosts;
+		byte[] backTraceDirections = this.backTraceDirections;
+		int targetSize = this.targetSize;
 		
 		//Distance between characters in source string to the null character in the beginning of the target string
 		//is the cost of deleting the characters.
-		LevenshteinEditDistanceTableElement previousElement = null;
-		for (int sourceStringIndex = 0; sourceStringIndex < this.sourceSize; ++sourceStringIndex) {
-			levenshteinEditDistanceTableElement = getElement(0, sourceStringIndex);
-			if (levenshteinEditDistanceTableElement != null) {
-				levenshteinEditDistanceTableElement.setAlignmentCost(sourceStringIndex);
-				levenshteinEditDistanceTableElement.setMinimumEditDistanceFromSameSource(previousElement);
-				previousElement = levenshteinEditDistanceTableElement;
-				setElement(0, sourceStringIndex, levenshteinEditDistanceTableElement);
-			}
+		for (int sourceStringIndex = 0, offset = 0; sourceStringIndex < this.sourceSize; ++sourceStringIndex, offset += targetSize) {
+			alignmentCosts[offset] = sourceStringIndex;
+			backTraceDirections[offset] = sourceStringIndex == 0 ? BACK_TRACE_NONE : BACK_TRACE_FROM_SAME_SOURCE;
 		}
 		
 		//Distance between the null character in source string and each element in the target string is the cost of inserting 
 		//each target string character
-		previousElement = null;
-		for (int targetStringIndex = 0; targetStringIndex < this.targetSize; ++targetStringIndex) {
-			levenshteinEditDistanceTableElement = getElement(targetStringIndex, 0);
-			if (levenshteinEditDistanceTableElement != null) {
-				levenshteinEditDistanceTableElement.setAlignmentCost(targetStringIndex);
-				levenshteinEditDistanceTableElement.setMinimumEditDistanceFromSameTarget(previousElement);
-				previousElement = levenshteinEditDistanceTableElement;
-				setElement(targetStringIndex, 0, levenshteinEditDistanceTableElement);
-			}
+		for (int targetStringIndex = 0; targetStringIndex < targetSize; ++targetStringIndex) {
+			alignmentCosts[targetStringIndex] = targetStringIndex;
+			backTraceDirections[targetStringIndex] = targetStringIndex == 0 ? BACK_TRACE_NONE : BACK_TRACE_FROM_SAME_TARGET;
 		}
 		
+		int previousInSourceCost = 0, previousInTargetCost = 0, previousInSourceAndTargetCost = 0, backTraceCost = 0, offset = 0;
 		int distanceFromPreviousInSource = 0, distanceFromPreviousInTarget = 0, distanceFromPreviousInSourceAndTarget = 0;
-		LevenshteinEditDistanceTableElement previousInSourceElement = null, previousInTargetElement = null, previousInSourceAndTargetElement = null;
+		byte backTraceDirection = BACK_TRACE_NONE;
+		char sourceCharacter;
 		
 		//Loop through the remaining elements in the table
 		for (int sourceStringIndex = 1; sourceStringIndex < this.sourceSize; ++sourceStringIndex) {
-			for (int targetStringIndex = 1; targetStringIndex < this.targetSize; ++targetStringIndex) {
+			
+			sourceCharacter = this.source.charAt(sourceStringIndex - 1);
+			offset = sourceStringIndex * targetSize;
+			
+			for (int targetStringIndex = 1; targetStringIndex < targetSize; ++targetStringIndex) {
 				
-				currentLevenshteinEditDistanceTableElement = getElement(targetStringIndex, sourceStringIndex);
-				assert currentLevenshteinEditDistanceTableElement != null;
+				++offset;
 				
 				//Get distance from previous element in source string
-				previousInSourceElement = getNeighborAboveOnPreviousRow(targetStringIndex, sourceStringIndex);
-				assert previousInSourceElement != null;
-				distanceFromPreviousInSource = previousInSourceElement.getAlignmentCost() + this.deletionCost;
+				previousInSourceCost = alignmentCosts[offset - targetSize];
+				distanceFromPreviousInSource = previousInSourceCost + this.deletionCost;
 				
 				//Get distance from previous element in target string 
-				previousInTargetElement = getPreviousNeighborOnSameRow(targetStringIndex, sourceStringIndex);
-				assert previousInTargetElement != null;
-				distanceFromPreviousInTarget = previousInTargetElement.getAlignmentCost() + this.insertionCost;
+				previousInTargetCost = alignmentCosts[offset - 1];
+				distanceFromPreviousInTarget = previousInTargetCost + this.insertionCost;
 				
 				//Get distance from previous elements in source and target strings 
-				previousInSourceAndTargetElement = getDiagonalNeighborOnPreviousRow(targetStringIndex, sourceStringIndex);
-				assert previousInSourceAndTargetElement != null;
-				if (this.source.charAt((currentLevenshteinEditDistanceTableElement.getSourceStringOffset() - 1)) == 
-				    this.target.charAt((currentLevenshteinEditDistanceTableElement.getTargetStringOffset() - 1))) {
+				previousInSourceAndTargetCost = alignmentCosts[offset - targetSize - 1];
+				if (sourceCharacter == this.target.charAt(targetStringIndex - 1)) {
 					//If same character in source and target, there is no cost
-					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetElement.getAlignmentCost();
+					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetCost;
 				} else {
 					//Add the cost of substitution
-					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetElement.getAlignmentCost() + this.substitutionCost;
+					distanceFromPreviousInSourceAndTarget = previousInSourceAndTargetCost + this.substitutionCost;
 				}
 				
-				currentLevenshteinEditDistanceTableElement.setAlignmentCost(Math.min(Math.min(distanceFromPreviousInTarget, distanceFromPreviousInSource), distanceFromPreviousInSourceAndTarget));
-				currentLevenshteinEditDistanceTableElement.setMinimumEditDistanceFromSameSource(previousInSourceElement);
-				currentLevenshteinEditDistanceTableElement.setMinimumEditDistanceFromSameTarget(previousInTargetElement);
-				currentLevenshteinEditDistanceTableElement.setMinimumEditDistanceFromDiagonal(previousInSourceAndTargetElement);
+				alignmentCosts[offset] = Math.min(Math.min(distanceFromPreviousInTarget, distanceFromPreviousInSource), distanceFromPreviousInSourceAndTarget);
+				
+				//The back trace is the neighbor with the least cost, preferring the same source, then the same target and then the diagonal
+				backTraceDirection = BACK_TRACE_FROM_SAME_SOURCE;
+				backTraceCost = previousInSourceCost;
+				if (previousInTargetCost < backTraceCost) {
+					backTraceDirection = BACK_TRACE_FROM_SAME_TARGET;
+					backTraceCost = previousInTargetCost;
+				}
+				if (previousInSourceAndTargetCost < backTraceCost) {
+					backTraceDirection = BACK_TRACE_FROM_DIAGONAL;
+				}
+				backTraceDirections[offset] = backTraceDirection;
 				
 			}
 		}
 		
+		//Any previously built table view is now stale
+		this.table = null;
+		
 	}
 	
 	/**
-	 * Get element by column and row number
+	 * Get the alignment cost by column and row number
 	 * 
 	 * @param column
 	 * @param row
-	 * @return a table element
+	 * @return the alignment cost
 	 */
-	LevenshteinEditDistanceTableElement getElement(int column, int row) {
+	@Override
+	int getAlignmentCost(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
-			return null;
+			throw new IllegalArgumentException("Invalid table coordinates.");
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		LevenshteinEditDistanceTableElement element = this.table.get(currentElementOffset);
-
-		return element;
+		return this.alignmentCosts[getTableOffset(column, row)];
 		
 	}
 	
 	/**
-	 * Put an element into the specified row and column
+	 * Get the direction of the back trace element by column and row number
 	 * 
 	 * @param column
 	 * @param row
-	 * @param element
-	 * @return true if the element is inserted
-	 */
-	private boolean setElement(int column, int row, LevenshteinEditDistanceTableElement element) {
-		
-		//Check if valid coordinate values have been passed in
-		if (!isValidCoordinate(column, row)) {
-			return false;
-		}
-		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		this.table.set(currentElementOffset, element);
-		
-		return true;
-	}
-
-	/**
-	 * Get the previous neighbor on the same row
-	 * 
-	 * @param column
-	 * @param row
-	 * @return a table element
+	 * @return one of the back trace direction codes
 	 */
-	private LevenshteinEditDistanceTableElement getPreviousNeighborOnSameRow(int column, int row) {
+	@Override
+	byte getBackTraceDirection(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
-			return null;
-		}
-
-		//Check if current point is on the border
-		if (column == 0) {
-			return null;
+			throw new IllegalArgumentException("Invalid table coordinates.");
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		LevenshteinEditDistanceTableElement neighbor = this.table.get(currentElementOffset - 1);
-
-		return neighbor;
+		return this.backTraceDirections[getTableOffset(column, row)];
 		
 	}
 	
 	/**
-	 * Get the neighbor above on the previous row 
+	 * Get element by column and row number from the table view
 	 * 
 	 * @param column
 	 * @param row
 	 * @return a table element
 	 */
-	private LevenshteinEditDistanceTableElement getNeighborAboveOnPreviousRow(int column, int row) {
+	LevenshteinEditDistanceTableElement getElement(int column, int row) {
 		
 		//Check if valid values have been passed in
 		if (!isValidCoordinate(column, row)) {
 			return null;
 		}
 		
-		//Check if current point is on the border
-		if (row == 0) {
-			return null;
-		}
-		
 		int currentElementOffset = getTableOffset(column, row);
 		
-		LevenshteinEditDistanceTableElement neighbor = this.table.get(currentElementOffset - this.targetSize);
-
-		return neighbor;		
+		LevenshteinEditDistanceTableElement element = getElementTable().get(currentElementOffset);
 
+		return element;
+		
 	}
 	
 	/**
-	 * Get the diagonal neighbor or previous row
+	 * Build the table of linked elements from the primitive arrays. This is only meant for debugging and inspection as it 
+	 * creates one object per cell.
 	 * 
-	 * @param column
-	 * @param row
-	 * @return a table element
+	 * @return the table elements
 	 */
-	private LevenshteinEditDistanceTableElement getDiagonalNeighborOnPreviousRow(int column, int row) {
+	private ArrayList<LevenshteinEditDistanceTableElement> getElementTable() {
 		
-		//Check if valid values have been passed in
-		if (!isValidCoordinate(column, row)) {
-			return null;
+		if (this.table != null) {
+			return this.table;
 		}
 		
-		//Check if current point is on the border
-		if (column == 0 || row == 0) {
-			return null;
+		ArrayList<LevenshteinEditDistanceTableElement> elementTable = new ArrayList<LevenshteinEditDistanceTableElement>(this.targetSize * this.sourceSize);
+		for (int sourceStringIndex = 0; sourceStringIndex < this.sourceSize; ++sourceStringIndex) {
+			for (int targetStringIndex = 0; targetStringIndex < this.targetSize; ++targetStringIndex) {
+				elementTable.add(new LevenshteinEditDistanceTableElement(null, null, null, this.alignmentCosts[getTableOffset(targetStringIndex, sourceStringIndex)], sourceStringIndex, targetStringIndex));
+			}
 		}
 		
-		int currentElementOffset = getTableOffset(column, row);
-		
-		LevenshteinEditDistanceTableElement neighbor = table.get(currentElementOffset - this.targetSize - 1);
+		//Link each element to its neighbors the same way the back trace directions were computed
+		LevenshteinEditDistanceTableElement element = null;
+		int offset = 0;
+		for (int sourceStringIndex = 0; sourceStringIndex < this.sourceSize; ++sourceStringIndex) {
+			for (int targetStringIndex = 0; targetStringIndex < this.targetSize; ++targetStringIndex) {
+				offset = getTableOffset(targetStringIndex, sourceStringIndex);
+				element = elementTable.get(offset);
+				if (this.backTraceDirections[offset] == BACK_TRACE_NONE) {
+					continue;
+				}
+				if (sourceStringIndex > 0) {
+					element.setMinimumEditDistanceFromSameSource(elementTable.get(offset - this.targetSize));
+				}
+				if (targetStringIndex > 0) {
+					element.setMinimumEditDistanceFromSameTarget(elementTable.get(offset - 1));
+				}
+				if (sourceStringIndex > 0 && targetStringIndex > 0) {
+					element.setMinimumEditDistanceFromDiagonal(elementTable.get(offset - this.targetSize - 1));
+				}
+			}
+		}
 		
-		return neighbor;
+		this.table = elementTable;
 		
+		return this.table;
 	}
 	
 	/**
@@ -280,10 +264,10 @@ public class LevenshteinEditDistanceTable {
 	}
 	
 	/**
-	 * @return a protected copy of the table
+	 * @return a protected copy of the table view
 	 */
 	public List<LevenshteinEditDistanceTableElement> getTable() {
-		return Collections.unmodifiableList(this.table);
+		return Collections.unmodifiableList(getElementTable());
 	}
 	
 	/**
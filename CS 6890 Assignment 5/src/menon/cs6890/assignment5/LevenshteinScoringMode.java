@@ -0,0 +1,25 @@
+package menon.cs6890.assignment5;
+
+/**
+ * The ways in which LEDSpellchecker can score nutrition terms
+ */
+public enum LevenshteinScoringMode {
+	
+	/**
+	 * Every element of the table is computed, so the best match is found whatever its cost
+	 */
+	EXACT,
+	
+	/**
+	 * Only the elements within a diagonal band that can stay within the maximum edit cost are computed. 
+	 * Nutrition terms that cost more than the maximum edit cost are never matched.
+	 */
+	BANDED,
+	
+	/**
+	 * Each column of the table is computed with a few bit vector operations (Myers). Only available when the
+	 * insertion, deletion and substitution costs are all 1.
+	 */
+	BIT_PARALLEL
+	
+}
@@ -1,7 +1,10 @@
 package menon.cs6890.assignment5;
 
+import java.io.IOException;
+
 public class MainClass {
 	
+	private static final String NUTRITION_DICTIONARY_FILE = "NutritionDictionary.txt";
 	private static final String INPUT_FILE = "input.txt";
 	private static final String OUTPUT_FILE_1 = "LEDoutput.txt";
 	private static final String OUTPUT_FILE_2 = "DTWoutput.txt";
@@ -21,9 +24,19 @@ public class MainClass {
 	
 	public static void main(String[] args) {
 
+		//Both spellcheckers share one copy of the dictionary
+		Dictionary dictionary = null;
+		try {
+			dictionary = Dictionary.load(NUTRITION_DICTIONARY_FILE);
+		} catch (IOException e) {
+			System.err.println("Unable to load dictionary file " + NUTRITION_DICTIONARY_FILE + ".");
+			e.printStackTrace();
+			return;
+		}
+		
 		System.out.println("Going to check spellings in contents of file " + INPUT_FILE + " using LED.");
 		
-		LEDSpellchecker ledSpellchecker = new LEDSpellchecker();
+		LEDSpellchecker ledSpellchecker = new LEDSpellchecker(dictionary);
 		ledSpellchecker.spellcheckFile(INPUT_FILE, OUTPUT_FILE_1);
 		
 		System.out.println("Corrected spelling put into " + OUTPUT_FILE_1);
@@ -47,7 +60,7 @@ public class MainClass {
 
 		System.out.println("Going to check spellings in contents of file " + INPUT_FILE + " using DTW.");
 		
-		DTWSpellchecker dtwSpellchecker = new DTWSpellchecker();
+		DTWSpellchecker dtwSpellchecker = new DTWSpellchecker(dictionary);
 		dtwSpellchecker.spellcheckFile(INPUT_FILE, OUTPUT_FILE_2);
 		
 		System.out.println("Corrected spelling put into " + OUTPUT_FILE_2);
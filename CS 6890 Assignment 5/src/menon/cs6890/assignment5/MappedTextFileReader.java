@@ -0,0 +1,183 @@
+package menon.cs6890.assignment5;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a text file having one word per line by memory mapping it instead of going through a BufferedReader. Lines
+ * are found by scanning the mapped bytes, and each non blank line is trimmed and converted to lower case while its
+ * bytes are copied into a reused character buffer, so only the final word is created as a String. Lines that are not
+ * plain ASCII are decoded as UTF-8 and converted the same way as String.trim().toLowerCase().
+ *
+ * Files larger than the mapping window are mapped one window at a time.
+ */
+public class MappedTextFileReader implements Closeable {
+
+	private static final int MAPPING_WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte SPACE = ' ';
+	private static final int ASCII_LIMIT = 0x80;
+	private static final int ASCII_CASE_OFFSET = 'a' - 'A';
+
+	private RandomAccessFile textFile;
+	private FileChannel fileChannel;
+	private long fileSize;
+	private MappedByteBuffer mappedWindow;
+	private long windowStart;
+	private int positionInWindow;
+	private char[] wordCharacters;
+
+	/**
+	 * Constructor
+	 *
+	 * @param inputFilePath
+	 * @throws FileNotFoundException if the file does not exist
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedTextFileReader(String inputFilePath) throws FileNotFoundException, IOException {
+
+		if (inputFilePath == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		this.textFile = new RandomAccessFile(inputFilePath, "r");
+		try {
+			this.fileChannel = this.textFile.getChannel();
+			this.fileSize = this.fileChannel.size();
+			this.wordCharacters = new char[64];
+			mapWindow(0, 0);
+		} catch (IOException e) {
+			this.textFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the next non blank line trimmed and in lower case, or null at the end of the file
+	 * @throws IOException
+	 */
+	public String readWord() throws IOException {
+
+		int lineStart = 0, lineEnd = 0;
+
+		while (true) {
+
+			if (this.windowStart + this.positionInWindow >= this.fileSize) {
+				return null;
+			}
+
+			//Find the end of the line, mapping further on if the line runs past the end of the window
+			lineStart = this.positionInWindow;
+			lineEnd = findLineEnd(lineStart);
+			if (lineEnd == this.mappedWindow.limit() && this.windowStart + lineEnd < this.fileSize) {
+				mapWindow(this.windowStart + lineStart, 0);
+				lineStart = 0;
+				lineEnd = findLineEnd(lineStart);
+				if (lineEnd == this.mappedWindow.limit() && this.windowStart + lineEnd < this.fileSize) {
+					//The line is longer than the window
+					mapWindow(this.windowStart, (int) Math.min(Integer.MAX_VALUE, this.fileSize - this.windowStart));
+					lineEnd = findLineEnd(lineStart);
+				}
+			}
+
+			//Skip the line terminator. A carriage return followed by a line feed leaves an empty line that is skipped next time.
+			this.positionInWindow = lineEnd < this.mappedWindow.limit() ? lineEnd + 1 : lineEnd;
+
+			//Trim the line
+			while (lineStart < lineEnd && (this.mappedWindow.get(lineStart) & 0xFF) <= SPACE) {
+				++lineStart;
+			}
+			while (lineEnd > lineStart && (this.mappedWindow.get(lineEnd - 1) & 0xFF) <= SPACE) {
+				--lineEnd;
+			}
+
+			if (lineEnd > lineStart) {
+				return toLowerCaseWord(lineStart, lineEnd);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		this.mappedWindow = null;
+		this.textFile.close();
+	}
+
+	/**
+	 * @param fromPosition
+	 * @return the position in the window of the next line terminator, or the window limit if there is none
+	 */
+	private int findLineEnd(int fromPosition) {
+
+		int limit = this.mappedWindow.limit();
+		byte character = 0;
+
+		for (int position = fromPosition; position < limit; ++position) {
+			character = this.mappedWindow.get(position);
+			if (character == LINE_FEED || character == CARRIAGE_RETURN) {
+				return position;
+			}
+		}
+
+		return limit;
+	}
+
+	/**
+	 * Copy the bytes of a trimmed line into the character buffer, converting ASCII upper case letters on the way
+	 *
+	 * @param lineStart
+	 * @param lineEnd
+	 * @return the word in lower case
+	 */
+	private String toLowerCaseWord(int lineStart, int lineEnd) {
+
+		int wordLength = lineEnd - lineStart;
+		if (this.wordCharacters.length < wordLength) {
+			this.wordCharacters = new char[Math.max(wordLength, this.wordCharacters.length * 2)];
+		}
+
+		int character = 0;
+		for (int position = lineStart; position < lineEnd; ++position) {
+
+			character = this.mappedWindow.get(position) & 0xFF;
+
+			if (character >= ASCII_LIMIT) {
+				//Leave anything that is not plain ASCII to the UTF-8 decoder and String
+				byte[] lineBytes = new byte[wordLength];
+				for (int index = 0; index < wordLength; ++index) {
+					lineBytes[index] = this.mappedWindow.get(lineStart + index);
+				}
+				return new String(lineBytes, StandardCharsets.UTF_8).trim().toLowerCase();
+			}
+
+			if (character >= 'A' && character <= 'Z') {
+				character += ASCII_CASE_OFFSET;
+			}
+			this.wordCharacters[position - lineStart] = (char) character;
+		}
+
+		return new String(this.wordCharacters, 0, wordLength);
+	}
+
+	/**
+	 * @param windowStart position in the file where the window starts
+	 * @param minimumWindowSize the window is at least this large unless the file ends first
+	 * @throws IOException
+	 */
+	private void mapWindow(long windowStart, int minimumWindowSize) throws IOException {
+
+		long windowSize = Math.min(Math.max(MAPPING_WINDOW_SIZE, minimumWindowSize), this.fileSize - windowStart);
+
+		this.mappedWindow = this.fileChannel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+		this.windowStart = windowStart;
+		this.positionInWindow = 0;
+	}
+
+}
@@ -0,0 +1,177 @@
+package menon.cs6890.assignment5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the character bigrams and trigrams of each dictionary term to the terms that contain them.
+ * Misspellings that come out of OCR still share many n-grams with the intended term, so scoring only the terms that
+ * share the most n-grams with a word finds the correction without aligning the word against the whole dictionary.
+ * Terms are padded with a boundary character, so that the first and last characters count as much as the others.
+ */
+public class NGramIndex {
+
+	public static final int SMALLEST_N_GRAM_LENGTH = 2;
+	public static final int LARGEST_N_GRAM_LENGTH = 3;
+	private static final char BOUNDARY_CHARACTER = '\u0000';
+	private static final int INITIAL_CAPACITY = 64;
+
+	private String[] terms;
+	private Map<String, int[]> termNumbersByNGram;
+	private ThreadLocal<int[]> sharedNGramCounts;
+
+	/**
+	 * Constructor
+	 *
+	 * @param terms the terms, which are numbered in the order given
+	 */
+	public NGramIndex(List<String> terms) {
+
+		if (terms == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		this.terms = terms.toArray(new String[terms.size()]);
+		this.termNumbersByNGram = new HashMap<String, int[]>();
+
+		//Count the terms having each n-gram first, so that each list of term numbers is allocated once
+		Map<String, int[]> termCountsByNGram = new HashMap<String, int[]>();
+		int[] termCount = null;
+		for (String term : this.terms) {
+			for (String nGram : getNGrams(term)) {
+				termCount = termCountsByNGram.get(nGram);
+				if (termCount == null) {
+					termCount = new int[1];
+					termCountsByNGram.put(nGram, termCount);
+				}
+				++termCount[0];
+			}
+		}
+
+		for (Map.Entry<String, int[]> termCountOfNGram : termCountsByNGram.entrySet()) {
+			this.termNumbersByNGram.put(termCountOfNGram.getKey(), new int[termCountOfNGram.getValue()[0]]);
+			termCountOfNGram.getValue()[0] = 0;
+		}
+
+		//Term numbers go in ascending order, which keeps each list in scan order
+		for (int termNumber = 0; termNumber < this.terms.length; ++termNumber) {
+			for (String nGram : getNGrams(this.terms[termNumber])) {
+				termCount = termCountsByNGram.get(nGram);
+				this.termNumbersByNGram.get(nGram)[termCount[0]++] = termNumber;
+			}
+		}
+
+		//The shared n-gram counts are reused between words, so each thread gets its own
+		this.sharedNGramCounts = new ThreadLocal<int[]>() {
+			@Override
+			protected int[] initialValue() {
+				return new int[NGramIndex.this.terms.length];
+			}
+		};
+	}
+
+	/**
+	 * Only terms whose length is within the maximum length difference of the word's length are counted. When more
+	 * terms than the maximum share the same number of n-grams with the word, the ones that come first are kept.
+	 *
+	 * @param word
+	 * @param maximumCandidates the most terms returned
+	 * @param maximumLengthDifference the most the length of a term can differ from the length of the word
+	 * @return the terms sharing the most n-grams with the word, in the order the terms were given
+	 */
+	public List<String> getCandidateTerms(String word, int maximumCandidates, int maximumLengthDifference) {
+
+		if (word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		if (maximumCandidates < 0 || maximumLengthDifference < 0) {
+			throw new IllegalArgumentException("Negative values not allowed");
+		}
+
+		int[] sharedNGramCounts = this.sharedNGramCounts.get();
+		int[] countedTermNumbers = new int[INITIAL_CAPACITY];
+		int countedTermCount = 0, highestSharedNGramCount = 0;
+
+		//Count the n-grams each term of about the right length shares with the word, remembering the terms counted so the counts can be cleared
+		for (String nGram : getNGrams(word)) {
+			int[] termNumbers = this.termNumbersByNGram.get(nGram);
+			if (termNumbers == null) {
+				continue;
+			}
+			for (int termNumber : termNumbers) {
+				if (Math.abs(this.terms[termNumber].length() - word.length()) > maximumLengthDifference) {
+					continue;
+				}
+				if (sharedNGramCounts[termNumber]++ == 0) {
+					if (countedTermCount == countedTermNumbers.length) {
+						countedTermNumbers = Arrays.copyOf(countedTermNumbers, countedTermCount * 2);
+					}
+					countedTermNumbers[countedTermCount++] = termNumber;
+				}
+				highestSharedNGramCount = Math.max(highestSharedNGramCount, sharedNGramCounts[termNumber]);
+			}
+		}
+
+		//Find the lowest shared n-gram count that still makes the cut, and how many terms with that count fit in
+		int[] termsWithSharedNGramCount = new int[highestSharedNGramCount + 1];
+		for (int countedTermIndex = 0; countedTermIndex < countedTermCount; ++countedTermIndex) {
+			++termsWithSharedNGramCount[sharedNGramCounts[countedTermNumbers[countedTermIndex]]];
+		}
+
+		int lowestSharedNGramCount = highestSharedNGramCount, candidatesAboveLowest = 0;
+		while (lowestSharedNGramCount > 1 && candidatesAboveLowest + termsWithSharedNGramCount[lowestSharedNGramCount] < maximumCandidates) {
+			candidatesAboveLowest += termsWithSharedNGramCount[lowestSharedNGramCount];
+			--lowestSharedNGramCount;
+		}
+		int candidatesAtLowest = maximumCandidates - candidatesAboveLowest;
+
+		//Go through the counted terms in order, taking every term above the lowest count and the first ones at it
+		Arrays.sort(countedTermNumbers, 0, countedTermCount);
+		List<String> candidateTerms = new ArrayList<String>(Math.min(maximumCandidates, countedTermCount));
+		int termNumber = 0;
+		for (int countedTermIndex = 0; countedTermIndex < countedTermCount; ++countedTermIndex) {
+			termNumber = countedTermNumbers[countedTermIndex];
+			if (sharedNGramCounts[termNumber] > lowestSharedNGramCount) {
+				candidateTerms.add(this.terms[termNumber]);
+			} else if (sharedNGramCounts[termNumber] == lowestSharedNGramCount && candidatesAtLowest > 0) {
+				candidateTerms.add(this.terms[termNumber]);
+				--candidatesAtLowest;
+			}
+			sharedNGramCounts[termNumber] = 0;
+		}
+
+		return candidateTerms;
+	}
+
+	/**
+	 * @return the number of distinct n-grams in the index
+	 */
+	public int getNGramCount() {
+		return this.termNumbersByNGram.size();
+	}
+
+	/**
+	 * @param string
+	 * @return the distinct bigrams and trigrams of the string padded with the boundary character
+	 */
+	private static Set<String> getNGrams(String string) {
+
+		Set<String> nGrams = new HashSet<String>();
+		String paddedString = BOUNDARY_CHARACTER + string + BOUNDARY_CHARACTER;
+
+		for (int nGramLength = SMALLEST_N_GRAM_LENGTH; nGramLength <= LARGEST_N_GRAM_LENGTH; ++nGramLength) {
+			for (int characterIndex = 0; characterIndex + nGramLength <= paddedString.length(); ++characterIndex) {
+				nGrams.add(paddedString.substring(characterIndex, characterIndex + nGramLength));
+			}
+		}
+
+		return nGrams;
+	}
+
+}
@@ -0,0 +1,571 @@
+package menon.cs6890.assignment5;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Keeps corrections on disk so that they survive from one run to the next. Each configuration key, which already
+ * covers the dictionary contents, gets its own cache file, named after the given path and a hash of the key, so
+ * spellcheckers with different settings can be given the same path. The cache file is an append only log that starts
+ * with a header holding the configuration key, and a file whose header does not match is emptied. The file is memory mapped in windows and only the position of each
+ * record is indexed, together with the hash of its word, so a correction is decoded when it is looked up and the heap
+ * holds no strings however many corrections there are. New corrections are appended to the file straight away. The
+ * end of the file is only mapped once enough has been appended to it, and until then its records are read from the
+ * file when they are looked up.
+ *
+ * A header is laid out as: magic number, version, configuration key length, configuration key.
+ * A record is laid out as: word length, word, correction length, correction. Lengths are unsigned shorts and strings
+ * are UTF-8. A record cut short by a crash is dropped when the cache is opened.
+ */
+public class PersistentCorrectionCache implements Closeable {
+
+	private static final int MAGIC_NUMBER = 0x53504343;
+	private static final int VERSION = 2;
+	private static final String CONFIGURATION_HASH_ALGORITHM = "SHA-256";
+	private static final int CONFIGURATION_HASH_DIGITS = 16;
+	private static final int MAXIMUM_STRING_LENGTH = 0xFFFF;
+	private static final int LENGTH_SIZE = 2;
+	private static final int MAXIMUM_RECORD_SIZE = 2 * (LENGTH_SIZE + MAXIMUM_STRING_LENGTH);
+	private static final long NO_RECORD = 0;
+	private static final int INITIAL_INDEX_SIZE = 1024;
+	private static final long WINDOW_SIZE = 1L << 28;
+	private static final long UNMAPPED_TAIL_SIZE = 1L << 20;
+
+	private String cacheFilePath;
+	private String configurationKey;
+	private RandomAccessFile cacheFile;
+	private FileChannel cacheFileChannel;
+	private MappedByteBuffer[] windows;
+	private long mappedEnd;
+	private long[] recordPositions;
+	private int[] recordHashes;
+	private int recordCount;
+	private ByteBuffer tailRecord;
+	private ByteBuffer recordBuffer;
+	private int recordOffset;
+	private long appendPosition;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Constructor. Opens the cache file of the configuration, creating it or emptying it if it does not belong to the configuration.
+	 *
+	 * @param cacheFilePath the file name of the configuration's hash is appended to it
+	 * @param configurationKey identifies the algorithm, settings and dictionary of the spellchecker
+	 * @throws IOException
+	 */
+	public PersistentCorrectionCache(String cacheFilePath, String configurationKey) throws IOException {
+
+		if (cacheFilePath == null || configurationKey == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		this.cacheFilePath = cacheFilePath + "." + getConfigurationHash(configurationKey);
+		this.configurationKey = configurationKey;
+		this.windows = new MappedByteBuffer[0];
+		this.mappedEnd = 0;
+		this.recordPositions = new long[INITIAL_INDEX_SIZE];
+		this.recordHashes = new int[INITIAL_INDEX_SIZE];
+		this.recordCount = 0;
+		this.tailRecord = null;
+		this.hitCount = 0;
+		this.missCount = 0;
+
+		this.cacheFile = new RandomAccessFile(this.cacheFilePath, "rw");
+		try {
+			this.cacheFileChannel = this.cacheFile.getChannel();
+			openCacheFile(createHeader(configurationKey));
+		} catch (IOException e) {
+			this.cacheFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param word
+	 * @return the correction of the word or null if it is not in the cache
+	 */
+	public synchronized String get(String word) {
+
+		if (word == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		String correction = null;
+		byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+
+		try {
+			long recordPosition = this.recordPositions[findSlot(wordBytes, getWordHash(wordBytes))];
+			if (recordPosition != NO_RECORD) {
+				correction = getCorrection(recordPosition, wordBytes.length);
+			}
+		} catch (IOException e) {
+			System.err.println("IOException thrown while reading from correction cache file " + this.cacheFilePath + ".");
+			e.printStackTrace();
+		}
+
+		if (correction == null) {
+			++this.missCount;
+		} else {
+			++this.hitCount;
+		}
+
+		return correction;
+	}
+
+	/**
+	 * Append a correction to the cache file. Words that are already cached and words or corrections too long for a
+	 * record are not appended.
+	 *
+	 * @param word
+	 * @param correction
+	 * @return true if the correction was appended
+	 */
+	public synchronized boolean put(String word, String correction) {
+
+		if (word == null || correction == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+
+		byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+		byte[] correctionBytes = correction.getBytes(StandardCharsets.UTF_8);
+
+		if (wordBytes.length > MAXIMUM_STRING_LENGTH || correctionBytes.length > MAXIMUM_STRING_LENGTH) {
+			return false;
+		}
+
+		ByteBuffer record = ByteBuffer.allocate(LENGTH_SIZE + wordBytes.length + LENGTH_SIZE + correctionBytes.length);
+		record.putShort((short) wordBytes.length).put(wordBytes).putShort((short) correctionBytes.length).put(correctionBytes);
+		record.flip();
+
+		int wordHash = getWordHash(wordBytes);
+		long recordPosition = this.appendPosition;
+
+		try {
+			if (this.recordPositions[findSlot(wordBytes, wordHash)] != NO_RECORD) {
+				return false;
+			}
+
+			while (record.hasRemaining()) {
+				this.appendPosition += this.cacheFileChannel.write(record, this.appendPosition);
+			}
+		} catch (IOException e) {
+			System.err.println("IOException thrown while appending to correction cache file " + this.cacheFilePath + ".");
+			e.printStackTrace();
+			return false;
+		}
+
+		addToIndex(recordPosition, wordBytes, wordHash);
+
+		//Map the end of the file once enough has been appended that reading its records one at a time would add up
+		if (this.appendPosition - this.mappedEnd >= UNMAPPED_TAIL_SIZE) {
+			try {
+				mapUpTo(this.appendPosition);
+			} catch (IOException e) {
+				System.err.println("IOException thrown while mapping correction cache file " + this.cacheFilePath + ".");
+				e.printStackTrace();
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+
+		this.windows = null;
+		this.recordBuffer = null;
+		this.cacheFile.close();
+	}
+
+	/**
+	 * @return the path of the cache file, which ends with a hash of the configuration key
+	 */
+	public String getCacheFilePath() {
+		return this.cacheFilePath;
+	}
+
+	/**
+	 * @return the configuration key the cache file belongs to
+	 */
+	public String getConfigurationKey() {
+		return this.configurationKey;
+	}
+
+	/**
+	 * @return the number of corrections in the cache
+	 */
+	public synchronized int size() {
+		return this.recordCount;
+	}
+
+	/**
+	 * @return the number of lookups that found a correction
+	 */
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return the number of lookups that did not find a correction
+	 */
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Map and index the records if the header matches, otherwise start the file over
+	 *
+	 * @param header
+	 * @throws IOException
+	 */
+	private void openCacheFile(byte[] header) throws IOException {
+
+		long fileSize = this.cacheFileChannel.size();
+
+		if (fileSize >= header.length && hasHeader(header)) {
+
+			mapUpTo(fileSize);
+			this.appendPosition = indexRecords(header.length, fileSize);
+
+			//Drop a record that was cut short
+			if (this.appendPosition < fileSize) {
+				System.err.println("Dropping the last " + (fileSize - this.appendPosition) + " bytes of correction cache file " + this.cacheFilePath + ", which hold a record cut short.");
+				this.cacheFileChannel.truncate(this.appendPosition);
+
+				//Map the file again so that no window reaches past its new end
+				this.windows = new MappedByteBuffer[0];
+				this.mappedEnd = 0;
+				mapUpTo(this.appendPosition);
+			}
+
+		} else {
+
+			if (fileSize > 0) {
+				System.err.println("Emptying correction cache file " + this.cacheFilePath + ", which was written for another configuration.");
+			}
+
+			this.cacheFileChannel.truncate(0);
+			ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+			this.appendPosition = 0;
+			while (headerBuffer.hasRemaining()) {
+				this.appendPosition += this.cacheFileChannel.write(headerBuffer, this.appendPosition);
+			}
+		}
+	}
+
+	/**
+	 * Map the file up to the given position. Each window also maps the longest record past its end, so that a record
+	 * is always read from the window it starts in. Only the windows from the one holding the old end are mapped again.
+	 *
+	 * @param end
+	 * @throws IOException
+	 */
+	private void mapUpTo(long end) throws IOException {
+
+		int windowCount = (int) ((end + WINDOW_SIZE - 1) / WINDOW_SIZE);
+		if (windowCount > this.windows.length) {
+			this.windows = Arrays.copyOf(this.windows, windowCount);
+		}
+
+		long windowStart = 0;
+		for (int window = (int) (this.mappedEnd / WINDOW_SIZE); window < windowCount; ++window) {
+			windowStart = window * WINDOW_SIZE;
+			this.windows[window] = this.cacheFileChannel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE + MAXIMUM_RECORD_SIZE, end - windowStart));
+		}
+
+		this.mappedEnd = end;
+	}
+
+	/**
+	 * @param header
+	 * @return true if the cache file starts with the header
+	 * @throws IOException
+	 */
+	private boolean hasHeader(byte[] header) throws IOException {
+
+		ByteBuffer fileHeader = ByteBuffer.allocate(header.length);
+		while (fileHeader.hasRemaining()) {
+			if (this.cacheFileChannel.read(fileHeader, fileHeader.position()) < 0) {
+				return false;
+			}
+		}
+
+		return Arrays.equals(fileHeader.array(), header);
+	}
+
+	/**
+	 * @param configurationKey
+	 * @return the first digits of a hash of the configuration key, in hexadecimal
+	 */
+	private static String getConfigurationHash(String configurationKey) {
+
+		MessageDigest messageDigest = null;
+		try {
+			messageDigest = MessageDigest.getInstance(CONFIGURATION_HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Every Java platform has to support " + CONFIGURATION_HASH_ALGORITHM + ".", e);
+		}
+
+		StringBuilder configurationHash = new StringBuilder();
+		for (byte hashByte : messageDigest.digest(configurationKey.getBytes(StandardCharsets.UTF_8))) {
+			configurationHash.append(Character.forDigit((hashByte >> 4) & 0xF, 16)).append(Character.forDigit(hashByte & 0xF, 16));
+		}
+
+		return configurationHash.substring(0, CONFIGURATION_HASH_DIGITS);
+	}
+
+	/**
+	 * @param configurationKey
+	 * @return the header of a cache file
+	 */
+	private static byte[] createHeader(String configurationKey) {
+
+		byte[] configurationKeyBytes = configurationKey.getBytes(StandardCharsets.UTF_8);
+
+		if (configurationKeyBytes.length > MAXIMUM_STRING_LENGTH) {
+			throw new IllegalArgumentException("Configuration key is too long.");
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(4 + 4 + LENGTH_SIZE + configurationKeyBytes.length);
+		header.putInt(MAGIC_NUMBER).putInt(VERSION);
+		header.putShort((short) configurationKeyBytes.length).put(configurationKeyBytes);
+
+		return header.array();
+	}
+
+	/**
+	 * Index the position of each complete record after the header. A later record of a word replaces an earlier one.
+	 *
+	 * @param firstRecordPosition
+	 * @param fileSize
+	 * @return the position just after the last complete record
+	 * @throws IOException
+	 */
+	private long indexRecords(long firstRecordPosition, long fileSize) throws IOException {
+
+		long recordPosition = firstRecordPosition, correctionPosition = 0, recordEnd = 0;
+		int wordLength = 0, wordHash = 0, slot = 0;
+
+		while (recordPosition + LENGTH_SIZE <= fileSize) {
+
+			loadRecord(recordPosition);
+			wordLength = getLength(0);
+			correctionPosition = recordPosition + LENGTH_SIZE + wordLength;
+			if (correctionPosition + LENGTH_SIZE > fileSize) {
+				break;
+			}
+
+			recordEnd = correctionPosition + LENGTH_SIZE + getLength(LENGTH_SIZE + wordLength);
+			if (recordEnd > fileSize) {
+				break;
+			}
+
+			byte[] wordBytes = new byte[wordLength];
+			for (int index = 0; index < wordLength; ++index) {
+				wordBytes[index] = this.recordBuffer.get(this.recordOffset + LENGTH_SIZE + index);
+			}
+
+			wordHash = getWordHash(wordBytes);
+			slot = findSlot(wordBytes, wordHash);
+			if (this.recordPositions[slot] == NO_RECORD) {
+				addToIndex(recordPosition, wordBytes, wordHash);
+			} else {
+				this.recordPositions[slot] = recordPosition;
+			}
+
+			recordPosition = recordEnd;
+		}
+
+		return recordPosition;
+	}
+
+	/**
+	 * @param wordBytes
+	 * @param wordHash
+	 * @return the slot of the word's record in the open addressing index, or the empty slot where it would go
+	 * @throws IOException
+	 */
+	private int findSlot(byte[] wordBytes, int wordHash) throws IOException {
+
+		int mask = this.recordPositions.length - 1;
+		int slot = wordHash & mask;
+		long recordPosition = NO_RECORD;
+
+		while ((recordPosition = this.recordPositions[slot]) != NO_RECORD) {
+			if (this.recordHashes[slot] == wordHash && isRecordForWord(recordPosition, wordBytes)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Add the record of a word that is not in the open addressing index yet
+	 *
+	 * @param recordPosition
+	 * @param wordBytes
+	 * @param wordHash
+	 */
+	private void addToIndex(long recordPosition, byte[] wordBytes, int wordHash) {
+
+		if (2 * (this.recordCount + 1) > this.recordPositions.length) {
+			growIndex();
+		}
+
+		int mask = this.recordPositions.length - 1;
+		int slot = wordHash & mask;
+
+		while (this.recordPositions[slot] != NO_RECORD) {
+			slot = (slot + 1) & mask;
+		}
+
+		this.recordPositions[slot] = recordPosition;
+		this.recordHashes[slot] = wordHash;
+		++this.recordCount;
+	}
+
+	/**
+	 * Double the size of the index. The word hashes are kept in the index, so no record has to be read again.
+	 */
+	private void growIndex() {
+
+		long[] oldRecordPositions = this.recordPositions;
+		int[] oldRecordHashes = this.recordHashes;
+		this.recordPositions = new long[oldRecordPositions.length * 2];
+		this.recordHashes = new int[oldRecordHashes.length * 2];
+		int mask = this.recordPositions.length - 1;
+		int slot = 0;
+
+		for (int oldSlot = 0; oldSlot < oldRecordPositions.length; ++oldSlot) {
+			if (oldRecordPositions[oldSlot] != NO_RECORD) {
+				slot = oldRecordHashes[oldSlot] & mask;
+				while (this.recordPositions[slot] != NO_RECORD) {
+					slot = (slot + 1) & mask;
+				}
+				this.recordPositions[slot] = oldRecordPositions[oldSlot];
+				this.recordHashes[slot] = oldRecordHashes[oldSlot];
+			}
+		}
+	}
+
+	/**
+	 * Point the record buffer and offset at a record, reading it from the file if it is past the mapped part
+	 *
+	 * @param recordPosition
+	 * @throws IOException
+	 */
+	private void loadRecord(long recordPosition) throws IOException {
+
+		if (recordPosition < this.mappedEnd) {
+			this.recordBuffer = this.windows[(int) (recordPosition / WINDOW_SIZE)];
+			this.recordOffset = (int) (recordPosition % WINDOW_SIZE);
+			return;
+		}
+
+		if (this.tailRecord == null) {
+			this.tailRecord = ByteBuffer.allocate(MAXIMUM_RECORD_SIZE);
+		}
+
+		//Read the word length, then the word and the correction length, then the correction
+		this.tailRecord.clear();
+		readFully(recordPosition, LENGTH_SIZE);
+		readFully(recordPosition, LENGTH_SIZE + (this.tailRecord.getShort(0) & MAXIMUM_STRING_LENGTH) + LENGTH_SIZE);
+		readFully(recordPosition, this.tailRecord.position() + (this.tailRecord.getShort(this.tailRecord.position() - LENGTH_SIZE) & MAXIMUM_STRING_LENGTH));
+
+		this.recordBuffer = this.tailRecord;
+		this.recordOffset = 0;
+	}
+
+	/**
+	 * Read from the file into the tail record until it holds the given number of bytes of the record
+	 *
+	 * @param recordPosition
+	 * @param length
+	 * @throws IOException
+	 */
+	private void readFully(long recordPosition, int length) throws IOException {
+
+		this.tailRecord.limit(length);
+		while (this.tailRecord.hasRemaining()) {
+			if (this.cacheFileChannel.read(this.tailRecord, recordPosition + this.tailRecord.position()) < 0) {
+				throw new IOException("Correction cache file " + this.cacheFilePath + " ends inside a record.");
+			}
+		}
+	}
+
+	/**
+	 * @param offset from the start of the loaded record
+	 * @return the length stored at the offset
+	 */
+	private int getLength(int offset) {
+		return this.recordBuffer.getShort(this.recordOffset + offset) & MAXIMUM_STRING_LENGTH;
+	}
+
+	/**
+	 * @param recordPosition
+	 * @param wordBytes
+	 * @return true if the record is for the word
+	 * @throws IOException
+	 */
+	private boolean isRecordForWord(long recordPosition, byte[] wordBytes) throws IOException {
+
+		loadRecord(recordPosition);
+
+		if (getLength(0) != wordBytes.length) {
+			return false;
+		}
+
+		for (int index = 0; index < wordBytes.length; ++index) {
+			if (this.recordBuffer.get(this.recordOffset + LENGTH_SIZE + index) != wordBytes[index]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param recordPosition
+	 * @param wordLength
+	 * @return the correction in the record
+	 * @throws IOException
+	 */
+	private String getCorrection(long recordPosition, int wordLength) throws IOException {
+
+		loadRecord(recordPosition);
+
+		int correctionOffset = this.recordOffset + LENGTH_SIZE + wordLength;
+		byte[] correctionBytes = new byte[this.recordBuffer.getShort(correctionOffset) & MAXIMUM_STRING_LENGTH];
+		for (int index = 0; index < correctionBytes.length; ++index) {
+			correctionBytes[index] = this.recordBuffer.get(correctionOffset + LENGTH_SIZE + index);
+		}
+
+		return new String(correctionBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param wordBytes
+	 * @return FNV-1a hash of the bytes
+	 */
+	private static int getWordHash(byte[] wordBytes) {
+
+		int hash = 0x811C9DC5;
+		for (byte wordByte : wordBytes) {
+			hash = (hash ^ (wordByte & 0xFF)) * 0x01000193;
+		}
+
+		return hash;
+	}
+
+}
@@ -0,0 +1,306 @@
+package menon.cs6890.assignment5;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Spell checks a file one line at a time with bounded memory. A reader thread feeds the words into a bounded queue,
+ * worker threads correct them, and the calling thread writes the corrections in input order as soon as the next one
+ * is ready. Corrections waiting to be written are held in a ring buffer as large as the queue, and the reader waits 
+ * for a free slot before reading on, so no more than that many words are in flight at once.
+ */
+public class StreamingSpellcheckPipeline {
+	
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	
+	private WordSpellchecker wordSpellchecker;
+	private int threadCount;
+	private int queueCapacity;
+	
+	private BlockingQueue<SequencedWord> pendingWords;
+	private Semaphore freeSlots;
+	private String[] correctedWords;
+	private Object correctedWordsLock;
+	private long wordCount;
+	private boolean inputFinished;
+	private Throwable failure;
+	
+	/**
+	 * A word together with its position in the input
+	 */
+	private static class SequencedWord {
+		
+		private long sequenceNumber;
+		private String word;
+		
+		SequencedWord(long sequenceNumber, String word) {
+			this.sequenceNumber = sequenceNumber;
+			this.word = word;
+		}
+	}
+	
+	private static final SequencedWord END_OF_INPUT = new SequencedWord(-1, null);
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param wordSpellchecker
+	 * @param threadCount the number of worker threads
+	 * @param queueCapacity the most words in flight at once
+	 */
+	public StreamingSpellcheckPipeline(WordSpellchecker wordSpellchecker, int threadCount, int queueCapacity) {
+		
+		if (wordSpellchecker == null) {
+			throw new IllegalArgumentException("Null parameters not allowed.");
+		}
+		
+		if (threadCount < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("At least one thread and one queue slot are needed.");
+		}
+		
+		this.wordSpellchecker = wordSpellchecker;
+		this.threadCount = threadCount;
+		this.queueCapacity = queueCapacity;
+	}
+	
+	/**
+	 * Reads the input file, which has one misspelling per line, and writes one correction per line to the output file
+	 * 
+	 * @param inputFilePath
+	 * @param outputFilePath
+	 * @return true if the whole file was spell checked
+	 */
+	public boolean spellcheckFile(String inputFilePath, String outputFilePath) {
+		
+		this.pendingWords = new ArrayBlockingQueue<SequencedWord>(this.queueCapacity + this.threadCount);
+		this.freeSlots = new Semaphore(this.queueCapacity);
+		this.correctedWords = new String[this.queueCapacity];
+		this.correctedWordsLock = new Object();
+		this.wordCount = 0;
+		this.inputFinished = false;
+		this.failure = null;
+		
+		final MappedTextFileReader textFileReader;
+		try {
+			textFileReader = new MappedTextFileReader(inputFilePath);
+		} catch (FileNotFoundException e) {
+			System.err.println("File " + inputFilePath + " was not found.");
+			e.printStackTrace();
+			return false;
+		} catch (IOException e) {
+			System.err.println("IOException thrown while reading file " + inputFilePath + ".");
+			e.printStackTrace();
+			return false;
+		}
+		
+		ExecutorService workers = Executors.newFixedThreadPool(this.threadCount);
+		Thread reader = null;
+		
+		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFilePath), StandardCharsets.UTF_8)) {
+			
+			for (int worker = 0; worker < this.threadCount; ++worker) {
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						correctWords();
+					}
+				});
+			}
+			
+			reader = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					readWords(textFileReader);
+				}
+			}, "spellcheck-reader");
+			reader.start();
+			
+			writeCorrectedWords(writer);
+			
+		} catch (IOException e) {
+			System.err.println("IOException thrown while trying to write to file " + outputFilePath);
+			e.printStackTrace();
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			workers.shutdownNow();
+			if (reader != null) {
+				reader.interrupt();
+				joinReader(reader);
+			}
+			
+			//The reader thread has stopped, so the file can no longer be read while it is being closed
+			try {
+				textFileReader.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		if (this.failure != null) {
+			System.err.println("Exception thrown while spell checking file " + inputFilePath + ".");
+			this.failure.printStackTrace();
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Wait for the reader thread to stop. An interrupt while waiting is passed on once it has stopped.
+	 * 
+	 * @param reader
+	 */
+	private void joinReader(Thread reader) {
+		
+		boolean interrupted = false;
+		
+		while (reader.isAlive()) {
+			try {
+				reader.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Runs on the reader thread. Each word is queued once there is a free slot for its correction.
+	 * 
+	 * @param textFileReader
+	 */
+	private void readWords(MappedTextFileReader textFileReader) {
+		
+		long sequenceNumber = 0;
+		String word = null;
+		
+		try {
+			word = textFileReader.readWord();
+			while (word != null) {
+				this.freeSlots.acquire();
+				this.pendingWords.put(new SequencedWord(sequenceNumber++, word));
+				word = textFileReader.readWord();
+			}
+			
+			//Tell each worker to stop
+			for (int worker = 0; worker < this.threadCount; ++worker) {
+				this.pendingWords.put(END_OF_INPUT);
+			}
+			
+			synchronized (this.correctedWordsLock) {
+				this.wordCount = sequenceNumber;
+				this.inputFinished = true;
+				this.correctedWordsLock.notifyAll();
+			}
+		} catch (IOException e) {
+			fail(e);
+		} catch (InterruptedException e) {
+			//The pipeline is being shut down
+		}
+	}
+	
+	/**
+	 * Runs on each worker thread. Corrects queued words until the end of the input is reached.
+	 */
+	private void correctWords() {
+		
+		SequencedWord sequencedWord = null;
+		String correctedWord = null;
+		
+		try {
+			while (true) {
+				sequencedWord = this.pendingWords.take();
+				if (sequencedWord == END_OF_INPUT) {
+					return;
+				}
+				
+				correctedWord = this.wordSpellchecker.spellcheckWord(sequencedWord.word);
+				
+				//An empty slot means the correction is not ready yet, so a missing correction would leave the writer waiting for ever
+				if (correctedWord == null) {
+					fail(new IllegalStateException("No correction was returned for the word \"" + sequencedWord.word + "\"."));
+					return;
+				}
+				
+				synchronized (this.correctedWordsLock) {
+					this.correctedWords[(int) (sequencedWord.sequenceNumber % this.queueCapacity)] = correctedWord;
+					this.correctedWordsLock.notifyAll();
+				}
+			}
+		} catch (InterruptedException e) {
+			//The pipeline is being shut down
+		} catch (RuntimeException e) {
+			fail(e);
+		}
+	}
+	
+	/**
+	 * Runs on the calling thread. Writes each correction as soon as all corrections before it have been written.
+	 * 
+	 * @param writer
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void writeCorrectedWords(BufferedWriter writer) throws IOException, InterruptedException {
+		
+		long nextSequenceNumber = 0;
+		int slot = 0;
+		String correctedWord = null;
+		
+		while (true) {
+			
+			slot = (int) (nextSequenceNumber % this.queueCapacity);
+			
+			synchronized (this.correctedWordsLock) {
+				while (this.correctedWords[slot] == null && this.failure == null && !(this.inputFinished && nextSequenceNumber == this.wordCount)) {
+					this.correctedWordsLock.wait();
+				}
+				
+				if (this.failure != null || this.correctedWords[slot] == null) {
+					break;
+				}
+				
+				correctedWord = this.correctedWords[slot];
+				this.correctedWords[slot] = null;
+			}
+			
+			writer.write(correctedWord);
+			writer.newLine();
+			
+			//The slot can now be used by the word that is as far ahead as the queue capacity
+			this.freeSlots.release();
+			++nextSequenceNumber;
+		}
+	}
+	
+	/**
+	 * Record the first failure and wake up the writer
+	 * 
+	 * @param failure
+	 */
+	private void fail(Throwable failure) {
+		
+		synchronized (this.correctedWordsLock) {
+			if (this.failure == null) {
+				this.failure = failure;
+			}
+			this.correctedWordsLock.notifyAll();
+		}
+	}
+
+}
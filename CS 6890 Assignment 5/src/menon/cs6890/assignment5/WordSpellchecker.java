@@ -0,0 +1,15 @@
+package menon.cs6890.assignment5;
+
+/**
+ * A spellchecker that can correct one word at a time. Implementations must allow words to be corrected from 
+ * several threads at once.
+ */
+public interface WordSpellchecker {
+	
+	/**
+	 * @param word to be spell checked
+	 * @return the best matching nutrition term, or the string NULL if no match was found, but never null
+	 */
+	String spellcheckWord(String word);
+
+}